@@ -0,0 +1,77 @@
+package coverage;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// operands are drawn up front, about a third of them not positive, so the -1 branch is not predictable
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class AdderBenchmark {
+    private static final int SIZE = 1024;
+    private final Adder adder = new Adder();
+    private final int[] a = new int[SIZE];
+    private final int[] b = new int[SIZE];
+    private final int[] out = new int[SIZE];
+    private int index;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < SIZE; i++) {
+            this.a[i] = random.nextInt(-50, 100);
+            this.b[i] = random.nextInt(-50, 100);
+        }
+    }
+
+    @Benchmark
+    public int add() {
+        int i = this.index++ & (SIZE - 1);
+        return this.adder.add(this.a[i], this.b[i]);
+    }
+
+    @Benchmark
+    public int addSaturating() {
+        int i = this.index++ & (SIZE - 1);
+        return this.adder.addSaturating(this.a[i], this.b[i]);
+    }
+
+    @Benchmark
+    public long addWide() {
+        int i = this.index++ & (SIZE - 1);
+        return this.adder.addWide(this.a[i], this.b[i]);
+    }
+
+    @Benchmark
+    public int addExact() {
+        int i = this.index++ & (SIZE - 1);
+        return this.adder.addExact(this.a[i], this.b[i]);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public int[] addLoop() {
+        for (int i = 0; i < SIZE; i++) {
+            this.out[i] = this.adder.add(this.a[i], this.b[i]);
+        }
+        return this.out;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public int[] addBulk() {
+        this.adder.add(this.a, this.b, this.out);
+        return this.out;
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int addThreaded() {
+        return add();
+    }
+}
@@ -0,0 +1,58 @@
+package coverage;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// one accumulator shared by all threads, against a plain LongAdder and an AtomicLong
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class PositiveAccumulatorBenchmark {
+    private final PositiveAccumulator accumulator = new PositiveAccumulator();
+    private final LongAdder longAdder = new LongAdder();
+    private final AtomicLong atomicLong = new AtomicLong();
+
+    @State(Scope.Thread)
+    public static class Values {
+        private int next;
+
+        // two values out of eight are not positive
+        private int value() {
+            return (this.next++ & 7) - 1;
+        }
+    }
+
+    @Benchmark
+    public boolean accumulator(Values values) {
+        return this.accumulator.accumulate(values.value());
+    }
+
+    @Benchmark
+    public void longAdder(Values values) {
+        this.longAdder.add(values.value());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean accumulatorThreaded(Values values) {
+        return this.accumulator.accumulate(values.value());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void longAdderThreaded(Values values) {
+        this.longAdder.add(values.value());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long atomicLongThreaded(Values values) {
+        return this.atomicLong.addAndGet(values.value());
+    }
+}
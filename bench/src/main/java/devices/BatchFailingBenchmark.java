@@ -0,0 +1,54 @@
+package devices;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+// one failure evaluation of a whole fleet, starting from no failed device
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class BatchFailingBenchmark {
+    @Param({"4096", "65536"})
+    private int devices;
+    private RandomFailing[] policies;
+    private RandomFailing batchPolicy;
+    private long[] failed;
+
+    @Setup
+    public void setUp() {
+        this.policies = new RandomFailing[this.devices];
+        for (int i = 0; i < this.devices; i++) {
+            this.policies[i] = RandomFailing.forDevice(42, i);
+        }
+        this.batchPolicy = RandomFailing.seeded(42);
+        this.failed = new long[(this.devices + 63) >>> 6];
+    }
+
+    @Benchmark
+    public int perDevice() {
+        int failures = 0;
+        for (RandomFailing policy : this.policies) {
+            policy.reset();
+            if (!policy.attemptOn()) {
+                failures++;
+            }
+        }
+        return failures;
+    }
+
+    @Benchmark
+    public int batch() {
+        Arrays.fill(this.failed, 0L);
+        this.batchPolicy.attemptOn(this.failed, 0, this.devices);
+        int failures = 0;
+        for (long word : this.failed) {
+            failures += Long.bitCount(word);
+        }
+        return failures;
+    }
+}
@@ -0,0 +1,88 @@
+package devices;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// one device shared by every thread: 2 threads switching, 6 threads reading
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ConcurrentDeviceBenchmark {
+    private Device concurrentDevice;
+    private Device synchronizedDevice;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        this.concurrentDevice = new ConcurrentDevice();
+        this.synchronizedDevice = new SynchronizedDevice(new StandardDevice(new RandomFailing()));
+    }
+
+    @Benchmark
+    @Group("concurrent")
+    @GroupThreads(2)
+    public void concurrentSwitch() {
+        switchOnce(this.concurrentDevice);
+    }
+
+    @Benchmark
+    @Group("concurrent")
+    @GroupThreads(6)
+    public boolean concurrentRead() {
+        return this.concurrentDevice.isOn();
+    }
+
+    @Benchmark
+    @Group("synchronized")
+    @GroupThreads(2)
+    public void synchronizedSwitch() {
+        switchOnce(this.synchronizedDevice);
+    }
+
+    @Benchmark
+    @Group("synchronized")
+    @GroupThreads(6)
+    public boolean synchronizedRead() {
+        return this.synchronizedDevice.isOn();
+    }
+
+    private static void switchOnce(Device device) {
+        try {
+            device.on();
+            device.off();
+        } catch (IllegalStateException e) {
+            device.reset();
+        }
+    }
+
+    private static final class SynchronizedDevice implements Device {
+        private final Device device;
+
+        private SynchronizedDevice(Device device) {
+            this.device = device;
+        }
+
+        @Override
+        public synchronized void on() throws IllegalStateException {
+            this.device.on();
+        }
+
+        @Override
+        public synchronized void off() {
+            this.device.off();
+        }
+
+        @Override
+        public synchronized boolean isOn() {
+            return this.device.isOn();
+        }
+
+        @Override
+        public synchronized void reset() {
+            this.device.reset();
+        }
+    }
+}
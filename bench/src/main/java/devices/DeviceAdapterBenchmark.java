@@ -0,0 +1,56 @@
+package devices;
+
+import org.openjdk.jmh.annotations.*;
+import tdd.DeviceImpl;
+
+import java.util.concurrent.TimeUnit;
+
+// the Devices adapters against direct calls on the adapted devices
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class DeviceAdapterBenchmark {
+    private tdd.Device tddDevice;
+    private Device ofTdd;
+    private Device standardDevice;
+    private tdd.Device asTdd;
+
+    @Setup
+    public void setUp() {
+        this.tddDevice = new DeviceImpl();
+        this.ofTdd = Devices.fromTdd(new DeviceImpl());
+        this.standardDevice = new StandardDevice(FailingPolicies.never());
+        this.asTdd = Devices.toTdd(new StandardDevice(FailingPolicies.never()));
+    }
+
+    @Benchmark
+    public boolean tddDirect() {
+        this.tddDevice.switchOn();
+        this.tddDevice.switchOff();
+        return this.tddDevice.isOn();
+    }
+
+    @Benchmark
+    public boolean tddAdapted() {
+        this.ofTdd.on();
+        this.ofTdd.off();
+        return this.ofTdd.isOn();
+    }
+
+    @Benchmark
+    public boolean standardDirect() {
+        this.standardDevice.on();
+        this.standardDevice.off();
+        return this.standardDevice.isOn();
+    }
+
+    @Benchmark
+    public boolean standardAdapted() {
+        this.asTdd.switchOn();
+        this.asTdd.switchOff();
+        return this.asTdd.isOn();
+    }
+}
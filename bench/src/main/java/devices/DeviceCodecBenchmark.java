@@ -0,0 +1,66 @@
+package devices;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+// snapshot and restore of 10k devices one record at a time, and of a fleet of the same size in bulk
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class DeviceCodecBenchmark {
+    private static final int DEVICES = 10_000;
+    private StandardDevice[] devices;
+    private DeviceFleet fleet;
+    private ByteBuffer devicesBuffer;
+    private ByteBuffer fleetBuffer;
+
+    @Setup
+    public void setUp() {
+        this.devices = new StandardDevice[DEVICES];
+        int size = Integer.BYTES;
+        for (int i = 0; i < DEVICES; i++) {
+            this.devices[i] = new StandardDevice(RandomFailing.forDevice(42, i));
+            this.devices[i].tryOn();
+            size += DeviceCodec.encodedSize(this.devices[i]);
+        }
+        this.fleet = new DeviceFleet(DEVICES, RandomFailing.seeded(42));
+        this.fleet.on(0, DEVICES);
+        this.devicesBuffer = ByteBuffer.allocateDirect(size);
+        this.fleetBuffer = ByteBuffer.allocateDirect(DeviceCodec.encodedSize(this.fleet));
+    }
+
+    @Benchmark
+    public ByteBuffer encodeDevices() {
+        this.devicesBuffer.clear();
+        DeviceCodec.encodeAll(this.devices, this.devicesBuffer);
+        return this.devicesBuffer;
+    }
+
+    @Benchmark
+    public StandardDevice[] decodeDevices() {
+        this.devicesBuffer.clear();
+        DeviceCodec.encodeAll(this.devices, this.devicesBuffer);
+        this.devicesBuffer.flip();
+        return DeviceCodec.decodeAll(this.devicesBuffer);
+    }
+
+    @Benchmark
+    public ByteBuffer encodeFleet() {
+        this.fleetBuffer.clear();
+        DeviceCodec.encode(this.fleet, this.fleetBuffer);
+        return this.fleetBuffer;
+    }
+
+    @Benchmark
+    public DeviceFleet decodeFleet() {
+        this.fleetBuffer.clear();
+        DeviceCodec.encode(this.fleet, this.fleetBuffer);
+        this.fleetBuffer.flip();
+        return DeviceCodec.decodeFleet(this.fleetBuffer);
+    }
+}
@@ -0,0 +1,55 @@
+package devices;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// building a fleet of 65536 devices: one java.util.Random per device, as RandomFailing's default
+// constructor used to allocate, against the factory's shared policy and lazily seeded SplitMix64
+// policies, from one thread and from 4 threads (where every new Random contends on the same seed
+// uniquifier)
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class DeviceFactoryBenchmark {
+    private static final int DEVICES = 65536;
+    private final StandardDevice[] devices = new StandardDevice[DEVICES];
+    private final DeviceFactory shared = DeviceFactory.shared(FailingPolicies.never());
+    private final DeviceFactory seeded = DeviceFactory.seeded(42);
+
+    @Benchmark
+    public StandardDevice[] newRandomFailing() {
+        for (int i = 0; i < DEVICES; i++) {
+            this.devices[i] = new StandardDevice(new RandomFailing(new Random()));
+        }
+        return this.devices;
+    }
+
+    @Benchmark
+    public StandardDevice[] sharedPolicy() {
+        this.shared.fill(this.devices, 0);
+        return this.devices;
+    }
+
+    @Benchmark
+    public StandardDevice[] lazilySeeded() {
+        this.seeded.fill(this.devices, 0);
+        return this.devices;
+    }
+
+    @Benchmark
+    @Threads(4)
+    public StandardDevice[] newRandomFailingThreaded() {
+        return this.newRandomFailing();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public StandardDevice[] lazilySeededThreaded() {
+        return this.lazilySeeded();
+    }
+}
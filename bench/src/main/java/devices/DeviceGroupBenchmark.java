@@ -0,0 +1,58 @@
+package devices;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// a room of 16 racks of 1024 devices: "is anything on" from the counters and by walking the
+// devices, and member transitions from 4 threads updating the same ancestors
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class DeviceGroupBenchmark {
+    private final DeviceGroup room = new DeviceGroup("room");
+    private final List<Device> members = new ArrayList<>();
+    private final List<StandardDevice> devices = new ArrayList<>();
+
+    @Setup
+    public void setUp() {
+        for (int r = 0; r < 16; r++) {
+            DeviceGroup rack = this.room.addGroup("rack" + r);
+            for (int d = 0; d < 1024; d++) {
+                StandardDevice device = new StandardDevice(FailingPolicies.never());
+                this.devices.add(device);
+                this.members.add(rack.add(device));
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean anyOnCounters() {
+        return this.room.anyOn();
+    }
+
+    @Benchmark
+    public boolean anyOnScan() {
+        for (StandardDevice device : this.devices) {
+            if (device.isOn()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean memberOnOffThreaded() {
+        Device member = this.members.get(ThreadLocalRandom.current().nextInt(this.members.size()));
+        member.on();
+        member.off();
+        return member.isOn();
+    }
+}
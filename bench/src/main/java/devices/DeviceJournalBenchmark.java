@@ -0,0 +1,43 @@
+package devices;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class DeviceJournalBenchmark {
+    private Path directory;
+    private DeviceJournal journal;
+    private long deviceId;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        this.directory = Files.createTempDirectory("journal-bench");
+        this.journal = DeviceJournal.open(this.directory, 1 << 20);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        this.journal.close();
+        try (Stream<Path> files = Files.walk(this.directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public void append() {
+        this.journal.append(this.deviceId++ & 0xffff, DeviceTransition.ON);
+    }
+}
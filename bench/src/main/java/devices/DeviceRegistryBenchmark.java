@@ -0,0 +1,89 @@
+package devices;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// "how many random devices are on" and "which are they" over 100k devices: the registry's
+// counters and id sets against a HashMap scan, and what keeping them costs a transition
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class DeviceRegistryBenchmark {
+    private static final int DEVICES = 100_000;
+    private final DeviceRegistry registry = new DeviceRegistry();
+    private final Map<Long, StandardDevice> map = new HashMap<>();
+    private Device handle;
+
+    @Setup
+    public void setUp() {
+        for (long id = 0; id < DEVICES; id++) {
+            StandardDevice device = new StandardDevice(id % 2 == 0 ? RandomFailing.forDevice(42, id) : FailingPolicies.never());
+            device.tryOn();
+            this.map.put(id, device);
+            this.registry.register(id, device);
+        }
+        this.handle = this.registry.register(DEVICES, new StandardDevice(FailingPolicies.never()));
+    }
+
+    @Benchmark
+    public long countOnRegistry() {
+        return this.registry.countOn("random");
+    }
+
+    @Benchmark
+    public long countOnScan() {
+        long count = 0;
+        for (StandardDevice device : this.map.values()) {
+            if (device.isOn() && "random".equals(device.failingPolicy().policyName())) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public long listOnRegistry() {
+        return this.registry.idsOn("random").sum();
+    }
+
+    @Benchmark
+    public long listOnScan() {
+        long sum = 0;
+        for (Map.Entry<Long, StandardDevice> entry : this.map.entrySet()) {
+            StandardDevice device = entry.getValue();
+            if (device.isOn() && "random".equals(device.failingPolicy().policyName())) {
+                sum += entry.getKey();
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public boolean onOffRegistry() {
+        this.handle.on();
+        this.handle.off();
+        return this.handle.isOn();
+    }
+
+    @Benchmark
+    public Device lookupRegistry() {
+        return this.registry.get(12_345);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Device lookupRegistryThreaded() {
+        return this.registry.get(12_345);
+    }
+
+    @Benchmark
+    public StandardDevice lookupMap() {
+        return this.map.get(12_345L);
+    }
+}
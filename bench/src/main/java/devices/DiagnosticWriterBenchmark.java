@@ -0,0 +1,71 @@
+package devices;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// dumping 65536 devices: toString() per device into a writer, the text streamed by
+// DiagnosticWriter, and the columnar dump, all into a channel that discards the bytes.
+// Run with -prof gc to compare the garbage per dump
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class DiagnosticWriterBenchmark {
+    private final List<StandardDevice> devices = new ArrayList<>();
+    private final DiagnosticWriter writer = new DiagnosticWriter();
+    private final WritableByteChannel discard = new WritableByteChannel() {
+        @Override
+        public int write(ByteBuffer source) {
+            int written = source.remaining();
+            source.position(source.limit());
+            return written;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    @Setup
+    public void setUp() {
+        DeviceFactory factory = DeviceFactory.seeded(42);
+        for (int i = 0; i < 65536; i++) {
+            StandardDevice device = factory.create(i);
+            device.tryOn();
+            this.devices.add(device);
+        }
+    }
+
+    @Benchmark
+    public long toStringLines() throws IOException {
+        long written = 0;
+        for (StandardDevice device : this.devices) {
+            written += this.discard.write(ByteBuffer.wrap((device + "\n").getBytes(StandardCharsets.UTF_8)));
+        }
+        return written;
+    }
+
+    @Benchmark
+    public long streamedText() throws IOException {
+        return this.writer.write(this.devices, this.discard);
+    }
+
+    @Benchmark
+    public long columnar() throws IOException {
+        return this.writer.writeColumnar(this.devices, this.discard);
+    }
+}
@@ -0,0 +1,36 @@
+package devices;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// 100k random-failing devices cycling 10 ticks on and 10 ticks off with 5 ticks of jitter:
+// about 7.5k transitions and 3.7k failed switch ons per tick in the steady state
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class DutyCycleSchedulerBenchmark {
+    private static final int DEVICES = 100_000;
+    private static final Duration TICK = Duration.ofMillis(1);
+    private DutyCycleScheduler scheduler;
+
+    @Setup
+    public void setUp() {
+        this.scheduler = new DutyCycleScheduler(512, TICK, DutyCycleScheduler.RetryPolicy.fixed(3, 1), new SplittableRandom(42));
+        for (long id = 0; id < DEVICES; id++) {
+            this.scheduler.add(new StandardDevice(RandomFailing.forDevice(42, id)),
+                    TICK.multipliedBy(10), TICK.multipliedBy(10), TICK.multipliedBy(5));
+        }
+        this.scheduler.advance(100);
+    }
+
+    @Benchmark
+    public int tick() {
+        return this.scheduler.tick();
+    }
+}
@@ -0,0 +1,116 @@
+package devices;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+// the same composition, and(afterN(1, failAfter(8)), never), built from the final classes of
+// FailingPolicies and from a chain of lambdas behind one generic adapter. The *Polluted variants
+// first run several other compositions through the same classes, as a process holding many
+// kinds of devices would, so the call sites inside And, AfterN and the adapter see many receivers
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class FailingPoliciesBenchmark {
+    private StandardDevice composed;
+    private StandardDevice lambdas;
+
+    @Setup
+    public void setUp() {
+        this.composed = new StandardDevice(FailingPolicies.and(
+                FailingPolicies.afterN(1, FailingPolicies.failAfter(8)), FailingPolicies.never()));
+        FailingPolicy failAfter = FailingPolicies.failAfter(8);
+        int[] made = {0};
+        BooleanSupplier afterN = () -> made[0]++ < 1 || failAfter.attemptOn();
+        BooleanSupplier never = () -> true;
+        this.lambdas = new StandardDevice(new LambdaPolicy(() -> afterN.getAsBoolean() && never.getAsBoolean(), () -> {
+            made[0] = 0;
+            failAfter.reset();
+        }));
+    }
+
+    @Benchmark
+    public boolean composed() {
+        return cycle(this.composed);
+    }
+
+    @Benchmark
+    public boolean lambdas() {
+        return cycle(this.lambdas);
+    }
+
+    @Benchmark
+    public boolean composedPolluted(Polluted polluted) {
+        return cycle(this.composed);
+    }
+
+    @Benchmark
+    public boolean lambdasPolluted(Polluted polluted) {
+        return cycle(this.lambdas);
+    }
+
+    private static boolean cycle(StandardDevice device) {
+        boolean on = device.tryOn();
+        if (!on) {
+            device.reset();
+        }
+        return on;
+    }
+
+    @State(Scope.Thread)
+    public static class Polluted {
+        @Setup
+        public void setUp() {
+            FailingPolicy[] compositions = {
+                    FailingPolicies.and(FailingPolicies.always(), FailingPolicies.never()),
+                    FailingPolicies.and(FailingPolicies.failAfter(3), FailingPolicies.afterN(2, FailingPolicies.always())),
+                    FailingPolicies.and(FailingPolicies.firstN(4, FailingPolicies.always()), FailingPolicies.failAfter(5)),
+                    FailingPolicies.and(FailingPolicies.or(FailingPolicies.always(), FailingPolicies.never()),
+                            FailingPolicies.afterN(1, FailingPolicies.firstN(2, FailingPolicies.never()))),
+                    FailingPolicies.afterN(3, FailingPolicies.and(FailingPolicies.never(), FailingPolicies.failAfter(2))),
+                    FailingPolicies.afterN(1, FailingPolicies.circuitBreaker(FailingPolicies.always(), 2, 2)),
+                    new LambdaPolicy(() -> true, () -> { }),
+                    new LambdaPolicy(() -> false, () -> { }),
+                    new LambdaPolicy(() -> System.nanoTime() > 0, () -> { })
+            };
+            StandardDevice[] devices = new StandardDevice[compositions.length];
+            for (int i = 0; i < devices.length; i++) {
+                devices[i] = new StandardDevice(compositions[i]);
+            }
+            for (int round = 0; round < 200_000; round++) {
+                for (StandardDevice device : devices) {
+                    cycle(device);
+                }
+            }
+        }
+    }
+
+    private static final class LambdaPolicy implements FailingPolicy {
+        private final BooleanSupplier attempt;
+        private final Runnable reset;
+
+        private LambdaPolicy(BooleanSupplier attempt, Runnable reset) {
+            this.attempt = attempt;
+            this.reset = reset;
+        }
+
+        @Override
+        public boolean attemptOn() {
+            return this.attempt.getAsBoolean();
+        }
+
+        @Override
+        public void reset() {
+            this.reset.run();
+        }
+
+        @Override
+        public String policyName() {
+            return "lambdas";
+        }
+    }
+}
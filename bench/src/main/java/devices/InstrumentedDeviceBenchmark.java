@@ -0,0 +1,53 @@
+package devices;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class InstrumentedDeviceBenchmark {
+    private Device plain;
+    private Device enabled;
+    private Device disabled;
+
+    @Setup
+    public void setUp() {
+        this.plain = new StandardDevice(RandomFailing.seeded(42));
+        this.enabled = new InstrumentedDevice(new StandardDevice(RandomFailing.seeded(42)), new DeviceMetrics());
+        DeviceMetrics disabledMetrics = new DeviceMetrics();
+        disabledMetrics.setEnabled(false);
+        this.disabled = new InstrumentedDevice(new StandardDevice(RandomFailing.seeded(42)), disabledMetrics);
+    }
+
+    @Benchmark
+    public boolean plain() {
+        return cycle(this.plain);
+    }
+
+    @Benchmark
+    public boolean enabled() {
+        return cycle(this.enabled);
+    }
+
+    @Benchmark
+    public boolean disabled() {
+        return cycle(this.disabled);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean enabledThreaded() {
+        return cycle(this.enabled);
+    }
+
+    private static boolean cycle(Device device) {
+        boolean on = device.tryOn();
+        device.reset();
+        return on;
+    }
+}
@@ -0,0 +1,53 @@
+package devices;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// every attempt starts from a reset RandomFailing, so on() fails 50% of the time
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class OnFailureBenchmark {
+    private StandardDevice throwingDevice;
+    private StandardDevice stacklessDevice;
+    private StandardDevice tryingDevice;
+
+    @Setup
+    public void setUp() {
+        this.throwingDevice = new StandardDevice(new RandomFailing());
+        this.stacklessDevice = new StandardDevice(new RandomFailing(), true);
+        this.tryingDevice = new StandardDevice(new RandomFailing());
+    }
+
+    @Benchmark
+    public boolean throwingOn() {
+        this.throwingDevice.reset();
+        try {
+            this.throwingDevice.on();
+            return true;
+        } catch (IllegalStateException e) {
+            return false;
+        }
+    }
+
+    @Benchmark
+    public boolean stacklessOn() {
+        this.stacklessDevice.reset();
+        try {
+            this.stacklessDevice.on();
+            return true;
+        } catch (IllegalStateException e) {
+            return false;
+        }
+    }
+
+    @Benchmark
+    public boolean tryOn() {
+        this.tryingDevice.reset();
+        return this.tryingDevice.tryOn();
+    }
+}
@@ -0,0 +1,69 @@
+package devices;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class RandomFailingBenchmark {
+
+    @State(Scope.Thread)
+    public static class OwnPolicy {
+        private final RandomFailing policy = new RandomFailing();
+    }
+
+    // a single policy, and so a single java.util.Random seed, for all threads
+    @State(Scope.Benchmark)
+    public static class SharedPolicy {
+        private final RandomFailing policy = new RandomFailing();
+    }
+
+    // a 0.1% failure rate, as a per-attempt threshold and as skip-ahead, against a nextDouble() comparison
+    @State(Scope.Thread)
+    public static class LowProbability {
+        private final RandomFailing threshold = RandomFailing.withProbability(0.001, new SplittableRandom(42));
+        private final RandomFailing skipAhead = RandomFailing.skipAhead(0.001, new SplittableRandom(42));
+        private final SplittableRandom random = new SplittableRandom(42);
+    }
+
+    @Benchmark
+    public boolean attemptOn(OwnPolicy state) {
+        state.policy.reset();
+        return state.policy.attemptOn();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean attemptOnThreaded(OwnPolicy state) {
+        return attemptOn(state);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean attemptOnShared(SharedPolicy state) {
+        state.policy.reset();
+        return state.policy.attemptOn();
+    }
+
+    @Benchmark
+    public boolean attemptOnThreshold(LowProbability state) {
+        state.threshold.reset();
+        return state.threshold.attemptOn();
+    }
+
+    @Benchmark
+    public boolean attemptOnSkipAhead(LowProbability state) {
+        state.skipAhead.reset();
+        return state.skipAhead.attemptOn();
+    }
+
+    @Benchmark
+    public boolean nextDoubleBaseline(LowProbability state) {
+        return state.random.nextDouble() >= 0.001;
+    }
+}
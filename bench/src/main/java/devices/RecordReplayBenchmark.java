@@ -0,0 +1,106 @@
+package devices;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+
+// one attemptOn() of a seeded RandomFailing, plain, recorded to a file and replayed from one,
+// per device files against the streams of one shared fleet file
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class RecordReplayBenchmark {
+    private static final int RECORDED = 1 << 24;
+    private Path directory;
+    private RandomFailing plain;
+    private RecordingFailingPolicy recording;
+    private ReplayingFailingPolicy replaying;
+    private FleetRecorder fleetRecorder;
+    private FailingPolicy fleetRecording;
+    private FleetReplayer fleetReplayer;
+    private FailingPolicy fleetReplaying;
+
+    @Setup
+    public void setUp() throws IOException {
+        this.directory = Files.createTempDirectory("record-replay");
+        this.plain = RandomFailing.seeded(42);
+        this.recording = new RecordingFailingPolicy(RandomFailing.seeded(42), this.directory.resolve("recording.bits"));
+        Path replayed = this.directory.resolve("replayed.bits");
+        try (RecordingFailingPolicy recorder = new RecordingFailingPolicy(RandomFailing.seeded(42), replayed)) {
+            for (int i = 0; i < RECORDED; i++) {
+                recorder.attemptOn();
+                recorder.reset();
+            }
+        }
+        this.replaying = new ReplayingFailingPolicy(replayed);
+        this.fleetRecorder = new FleetRecorder(this.directory.resolve("fleet-recording.bits"));
+        this.fleetRecording = this.fleetRecorder.record(0, RandomFailing.seeded(42));
+        Path fleetReplayed = this.directory.resolve("fleet-replayed.bits");
+        try (FleetRecorder recorder = new FleetRecorder(fleetReplayed)) {
+            FailingPolicy policy = recorder.record(0, RandomFailing.seeded(42));
+            for (int i = 0; i < RECORDED; i++) {
+                policy.attemptOn();
+                policy.reset();
+            }
+        }
+        this.fleetReplayer = new FleetReplayer(fleetReplayed);
+        this.fleetReplaying = this.fleetReplayer.replay(0);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        this.recording.close();
+        this.replaying.close();
+        this.fleetRecorder.close();
+        this.fleetReplayer.close();
+        try (var files = Files.list(this.directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(this.directory);
+    }
+
+    @Benchmark
+    public boolean plain() {
+        this.plain.reset();
+        return this.plain.attemptOn();
+    }
+
+    @Benchmark
+    public boolean record() {
+        this.recording.reset();
+        return this.recording.attemptOn();
+    }
+
+    @Benchmark
+    public boolean replay() {
+        if (this.replaying.remaining() == 0) {
+            this.replaying.rewind();
+        }
+        return this.replaying.attemptOn();
+    }
+
+    @Benchmark
+    public boolean recordFleet() {
+        this.fleetRecording.reset();
+        return this.fleetRecording.attemptOn();
+    }
+
+    @Benchmark
+    public boolean replayFleet() {
+        try {
+            return this.fleetReplaying.attemptOn();
+        } catch (NoSuchElementException e) {
+            this.fleetReplaying = this.fleetReplayer.replay(0);
+            return this.fleetReplaying.attemptOn();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package devices;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+// the same simulation on pools of growing size, to check how close to linear it scales
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReliabilitySimulatorBenchmark {
+    @Param({"1", "2", "4", "8"})
+    private int parallelism;
+    private ForkJoinPool pool;
+    private final ReliabilitySimulator simulator = new ReliabilitySimulator();
+
+    @Setup
+    public void setUp() {
+        this.pool = new ForkJoinPool(this.parallelism);
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.pool.shutdown();
+    }
+
+    @Benchmark
+    public SimulationResult simulate() {
+        return this.simulator.simulate(100_000, 100, 42, this.pool);
+    }
+}
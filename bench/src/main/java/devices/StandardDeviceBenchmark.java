@@ -0,0 +1,87 @@
+package devices;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// every thread owns its devices, the @Threads(4) variants show how the same work scales
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class StandardDeviceBenchmark {
+    private StandardDevice device;
+    private StandardDevice randomDevice;
+
+    @Setup
+    public void setUp() {
+        this.device = new StandardDevice(new NeverFailing());
+        this.randomDevice = new StandardDevice(new RandomFailing());
+    }
+
+    @Benchmark
+    public boolean on() {
+        this.device.on();
+        return this.device.isOn();
+    }
+
+    @Benchmark
+    public boolean off() {
+        this.device.off();
+        return this.device.isOn();
+    }
+
+    @Benchmark
+    public boolean reset() {
+        this.device.reset();
+        return this.device.isOn();
+    }
+
+    @Benchmark
+    public boolean onOff() {
+        this.device.on();
+        this.device.off();
+        return this.device.isOn();
+    }
+
+    @Benchmark
+    public boolean randomOnAfterReset() {
+        this.randomDevice.reset();
+        try {
+            this.randomDevice.on();
+        } catch (IllegalStateException e) {
+            return false;
+        }
+        return true;
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean onOffThreaded() {
+        return onOff();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean randomOnAfterResetThreaded() {
+        return randomOnAfterReset();
+    }
+
+    private static final class NeverFailing implements FailingPolicy {
+        @Override
+        public boolean attemptOn() {
+            return true;
+        }
+
+        @Override
+        public void reset() {
+        }
+
+        @Override
+        public String policyName() {
+            return "never";
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package tdd;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class DeviceImplBenchmark {
+    private Device device;
+
+    @Setup
+    public void setUp() {
+        this.device = new DeviceImpl();
+    }
+
+    @Benchmark
+    public boolean switchOnOff() {
+        this.device.switchOn();
+        this.device.switchOff();
+        return this.device.isOn();
+    }
+
+    @Benchmark
+    public boolean switchOff() {
+        this.device.switchOff();
+        return this.device.isOn();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean switchOnOffThreaded() {
+        return switchOnOff();
+    }
+}
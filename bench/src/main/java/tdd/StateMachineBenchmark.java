@@ -0,0 +1,60 @@
+package tdd;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// a StateMachineDevice against DeviceImpl, and one event applied to 65536 states at once
+// through the tables, with and without a guard on the event
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class StateMachineBenchmark {
+    private final StateMachine extended = DeviceStates.extended();
+    private final StateMachine guarded = DeviceStates.extendedBuilder()
+            .guard("booting", "fail", (index, from, to) -> (index & 7) == 0)
+            .build();
+    private final byte[] states = new byte[65536];
+    private Device device;
+
+    @Setup
+    public void setUp() {
+        this.device = new StateMachineDevice(DeviceStates.onOff());
+        for (int i = 0; i < this.states.length; i++) {
+            this.states[i] = (byte) (i % this.extended.states());
+        }
+    }
+
+    @Benchmark
+    public boolean switchOnOff() {
+        this.device.switchOn();
+        this.device.switchOff();
+        return this.device.isOn();
+    }
+
+    // sleep then switchOn: on -> standby -> on, the other states are rejected and stay
+    @Benchmark
+    public int applySleepWake() {
+        return this.extended.apply(this.states, DeviceStates.SLEEP)
+                + this.extended.apply(this.states, DeviceStates.SWITCH_ON);
+    }
+
+    // fail through a guard that only lets one booting state in 8 fail, then the states are restored
+    @Benchmark
+    public int applyGuarded() {
+        int rejected = this.guarded.apply(this.states, DeviceStates.FAIL);
+        for (int i = 0; i < this.states.length; i++) {
+            this.states[i] = (byte) (i % this.extended.states());
+        }
+        return rejected;
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean switchOnOffThreaded() {
+        return switchOnOff();
+    }
+}
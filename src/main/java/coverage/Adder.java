@@ -1,10 +1,117 @@
 package coverage;
 
+import java.nio.IntBuffer;
+import java.util.Objects;
+
+// the bulk variants compute exactly add(a[i], b[i]) for every i: the sum when both operands are
+// positive, -1 otherwise. Like add, a sum above Integer.MAX_VALUE wraps around to a negative value.
 public class Adder {
+    private static final boolean VECTORIZED = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
     public int add(int i1, int i2){
         if (i1 > 0 && i2 > 0) {
             return i1 + i2;
         }
         return -1;
     }
+
+    // same rule as add, but throws ArithmeticException instead of wrapping around
+    public int addExact(int i1, int i2) {
+        if (i1 > 0 && i2 > 0) {
+            return Math.addExact(i1, i2);
+        }
+        return -1;
+    }
+
+    public long addExact(long l1, long l2) {
+        if (l1 > 0 && l2 > 0) {
+            return Math.addExact(l1, l2);
+        }
+        return -1;
+    }
+
+    // same rule as add, but a sum above Integer.MAX_VALUE is clamped to it
+    public int addSaturating(int i1, int i2) {
+        if (i1 > 0 && i2 > 0) {
+            long sum = (long) i1 + i2;
+            return (int) Math.min(sum, Integer.MAX_VALUE);
+        }
+        return -1;
+    }
+
+    // same rule as add, computed on longs so it never overflows
+    public long addWide(int i1, int i2) {
+        if (i1 > 0 && i2 > 0) {
+            return (long) i1 + i2;
+        }
+        return -1;
+    }
+
+    public void add(int[] a, int[] b, int[] out) {
+        if (a.length != b.length || a.length != out.length) {
+            throw new IllegalArgumentException("arrays of different lengths: " + a.length + ", " + b.length + ", " + out.length);
+        }
+        this.add(a, 0, b, 0, out, 0, a.length);
+    }
+
+    public void add(int[] a, int aOffset, int[] b, int bOffset, int[] out, int outOffset, int length) {
+        Objects.checkFromIndexSize(aOffset, length, a.length);
+        Objects.checkFromIndexSize(bOffset, length, b.length);
+        Objects.checkFromIndexSize(outOffset, length, out.length);
+        if (VECTORIZED) {
+            VectorAdd.add(a, aOffset, b, bOffset, out, outOffset, length);
+        } else {
+            addScalar(a, aOffset, b, bOffset, out, outOffset, length);
+        }
+    }
+
+    static void addScalar(int[] a, int aOffset, int[] b, int bOffset, int[] out, int outOffset, int length) {
+        for (int i = 0; i < length; i++) {
+            out[outOffset + i] = sum(a[aOffset + i], b[bOffset + i]);
+        }
+    }
+
+    // out[offset + k * stride] = add(a[offset + k * stride], b[offset + k * stride]) for k in [0, count)
+    public void add(int[] a, int[] b, int[] out, int offset, int stride, int count) {
+        if (stride <= 0 || count < 0) {
+            throw new IllegalArgumentException("invalid stride or count: " + stride + ", " + count);
+        }
+        if (count == 0) {
+            return;
+        }
+        long last = offset + (long) stride * (count - 1);
+        int length = Math.min(a.length, Math.min(b.length, out.length));
+        if (offset < 0 || last >= length) {
+            throw new IndexOutOfBoundsException("strided range ends at " + last + ", arrays of length " + length);
+        }
+        // indexed from k rather than stepping i += stride, which can wrap past Integer.MAX_VALUE
+        // after the last element; every offset + k * stride up to last fits in an int
+        for (int k = 0; k < count; k++) {
+            int i = offset + k * stride;
+            out[i] = sum(a[i], b[i]);
+        }
+    }
+
+    // consumes the remaining elements of a and b, writing as many results into out
+    public void add(IntBuffer a, IntBuffer b, IntBuffer out) {
+        int length = a.remaining();
+        if (b.remaining() != length || out.remaining() < length) {
+            throw new IllegalArgumentException("buffers of different lengths: " + length + ", " + b.remaining() + ", " + out.remaining());
+        }
+        if (a.hasArray() && b.hasArray() && out.hasArray() && !out.isReadOnly()) {
+            this.add(a.array(), a.arrayOffset() + a.position(), b.array(), b.arrayOffset() + b.position(),
+                    out.array(), out.arrayOffset() + out.position(), length);
+        } else {
+            for (int i = 0; i < length; i++) {
+                out.put(out.position() + i, sum(a.get(a.position() + i), b.get(b.position() + i)));
+            }
+        }
+        a.position(a.position() + length);
+        b.position(b.position() + length);
+        out.position(out.position() + length);
+    }
+
+    private static int sum(int i1, int i2) {
+        return i1 > 0 & i2 > 0 ? i1 + i2 : -1;
+    }
 }
@@ -0,0 +1,33 @@
+package coverage;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// a running total shared between threads that follows the rule of Adder: only positive
+// values are added, the others are counted as rejected. Both counters are striped LongAdders,
+// so concurrent updates do not contend on a single word and allocate nothing once warmed up.
+public class PositiveAccumulator {
+    private final LongAdder sum = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public boolean accumulate(int value) {
+        if (value > 0) {
+            this.sum.add(value);
+            return true;
+        }
+        this.rejected.increment();
+        return false;
+    }
+
+    public long sum() {
+        return this.sum.sum();
+    }
+
+    public long rejected() {
+        return this.rejected.sum();
+    }
+
+    public void reset() {
+        this.sum.reset();
+        this.rejected.reset();
+    }
+}
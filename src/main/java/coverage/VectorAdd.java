@@ -0,0 +1,32 @@
+package coverage;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// only loaded when the jdk.incubator.vector module is present, see Adder
+final class VectorAdd {
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    private VectorAdd() {
+    }
+
+    static void add(int[] a, int aOffset, int[] b, int bOffset, int[] out, int outOffset, int length) {
+        IntVector sentinel = IntVector.broadcast(SPECIES, -1);
+        int i = 0;
+        for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            IntVector va = IntVector.fromArray(SPECIES, a, aOffset + i);
+            IntVector vb = IntVector.fromArray(SPECIES, b, bOffset + i);
+            VectorMask<Integer> positive = va.compare(VectorOperators.GT, 0).and(vb.compare(VectorOperators.GT, 0));
+            sentinel.blend(va.add(vb), positive).intoArray(out, outOffset + i);
+        }
+        if (i < length) {
+            VectorMask<Integer> tail = SPECIES.indexInRange(i, length);
+            IntVector va = IntVector.fromArray(SPECIES, a, aOffset + i, tail);
+            IntVector vb = IntVector.fromArray(SPECIES, b, bOffset + i, tail);
+            VectorMask<Integer> positive = va.compare(VectorOperators.GT, 0).and(vb.compare(VectorOperators.GT, 0));
+            sentinel.blend(va.add(vb), positive).intoArray(out, outOffset + i, tail);
+        }
+    }
+}
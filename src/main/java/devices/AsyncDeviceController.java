@@ -0,0 +1,164 @@
+package devices;
+
+import java.time.Duration;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
+
+// switches devices on from virtual threads: at most maxConcurrency devices are in flight, so
+// memory stays bounded whatever the number of devices, and no platform thread is ever blocked
+//
+// a timed out attempt is interrupted, but a device that ignores interrupts keeps running it:
+// such a device may still switch on after being reported as timed out, even while a later
+// resetAll() resets it. Its attempt keeps one of the maxConcurrency permits until it returns,
+// across calls, so devices that never return eventually block the controller
+public class AsyncDeviceController implements AutoCloseable {
+    private static final byte SUCCEEDED = 1;
+    private static final byte FAILED = 2;
+    private static final byte TIMED_OUT = 3;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore permits;
+    private final Duration timeout;
+    private final int maxRetries;
+
+    // each device gets 1 + maxRetries attempts, with a reset() before every retry,
+    // and all of them together must complete within timeout
+    public AsyncDeviceController(int maxConcurrency, Duration timeout, int maxRetries) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency must be positive: " + maxConcurrency);
+        }
+        if (maxRetries < 0) {
+            throw new IllegalArgumentException("maxRetries must not be negative: " + maxRetries);
+        }
+        this.permits = new Semaphore(maxConcurrency);
+        this.timeout = Objects.requireNonNull(timeout);
+        this.maxRetries = maxRetries;
+    }
+
+    public CompletableFuture<SwitchOnReport> switchOnAllAsync(List<? extends Device> devices) {
+        return CompletableFuture.supplyAsync(() -> this.switchOnAll(devices), this.executor);
+    }
+
+    public SwitchOnReport switchOnAll(List<? extends Device> devices) {
+        byte[] outcomes = new byte[devices.size()];
+        LongAdder retries = new LongAdder();
+        this.fanOut(devices.size(), index -> outcomes[index] = this.switchOn(devices.get(index), retries));
+        BitSet failed = new BitSet(outcomes.length);
+        BitSet timedOut = new BitSet(outcomes.length);
+        int succeeded = 0;
+        for (int i = 0; i < outcomes.length; i++) {
+            switch (outcomes[i]) {
+                case SUCCEEDED -> succeeded++;
+                case TIMED_OUT -> timedOut.set(i);
+                default -> failed.set(i);
+            }
+        }
+        return new SwitchOnReport(outcomes.length, succeeded, retries.sum(), failed, timedOut);
+    }
+
+    public void resetAll(List<? extends Device> devices) {
+        this.fanOut(devices.size(), index -> {
+            try {
+                devices.get(index).reset();
+            } finally {
+                this.permits.release();
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        this.executor.close();
+    }
+
+    // the permit is released by the attempt once it returns, not when it times out; if the attempt
+    // has not started by then, it never starts and the permit is released here
+    private byte switchOn(Device device, LongAdder retries) {
+        AtomicBoolean started = new AtomicBoolean();
+        Future<Integer> attempts;
+        try {
+            attempts = this.executor.submit(() -> {
+                if (!started.compareAndSet(false, true)) {
+                    return 0;
+                }
+                try {
+                    return this.attempt(device);
+                } finally {
+                    this.permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            this.permits.release();
+            throw e;
+        }
+        try {
+            int made = attempts.get(this.timeout.toNanos(), TimeUnit.NANOSECONDS);
+            retries.add(Math.abs(made) - 1);
+            return made > 0 ? SUCCEEDED : FAILED;
+        } catch (TimeoutException e) {
+            this.abandon(attempts, started);
+            return TIMED_OUT;
+        } catch (ExecutionException e) {
+            return FAILED;
+        } catch (InterruptedException e) {
+            this.abandon(attempts, started);
+            Thread.currentThread().interrupt();
+            return FAILED;
+        }
+    }
+
+    private void abandon(Future<Integer> attempts, AtomicBoolean started) {
+        if (started.compareAndSet(false, true)) {
+            this.permits.release();
+        }
+        attempts.cancel(true);
+    }
+
+    // the number of attempts made, negative if the last one failed too
+    private int attempt(Device device) {
+        for (int attempt = 1; ; attempt++) {
+            if (device.tryOn()) {
+                return attempt;
+            }
+            if (attempt > this.maxRetries || Thread.currentThread().isInterrupted()) {
+                return -attempt;
+            }
+            device.reset();
+        }
+    }
+
+    // runs task(0) ... task(count - 1) and waits for all of them; each task is handed a permit
+    // and must release it once it no longer touches its device, so that never more than
+    // maxConcurrency devices are in flight
+    private void fanOut(int count, IntConsumer task) {
+        CountDownLatch done = new CountDownLatch(count);
+        for (int i = 0; i < count; i++) {
+            this.permits.acquireUninterruptibly();
+            int index = i;
+            this.executor.execute(() -> {
+                try {
+                    task.accept(index);
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        boolean interrupted = false;
+        while (true) {
+            try {
+                done.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
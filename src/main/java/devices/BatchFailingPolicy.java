@@ -0,0 +1,8 @@
+package devices;
+
+public interface BatchFailingPolicy {
+    // failed holds one bit per device: every device in [from, to) that fails gets its bit set,
+    // a device already failed stays failed until its bit is cleared
+    void attemptOn(long[] failed, int from, int to);
+    String policyName();
+}
@@ -0,0 +1,22 @@
+package devices;
+
+final class Bits {
+    private Bits() {
+    }
+
+    static int words(int bits) {
+        return (bits + 63) >>> 6;
+    }
+
+    // the bits of the given word that fall inside [from, to)
+    static long mask(int word, int from, int to) {
+        long mask = -1L;
+        if (word == from >>> 6) {
+            mask &= -1L << from;
+        }
+        if (word == (to - 1) >>> 6) {
+            mask &= -1L >>> -to;
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,83 @@
+package devices;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Objects;
+import java.util.random.RandomGenerator;
+
+// on/failed live in a single word updated by CAS, so every operation is
+// linearizable without locks; failures follow RandomFailing (sticky until reset)
+public class ConcurrentDevice implements Device {
+    private static final int ON = 1;
+    private static final int FAILED = 2;
+    private static final VarHandle STATE;
+
+    static {
+        try {
+            STATE = MethodHandles.lookup().findVarHandle(ConcurrentDevice.class, "state", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final RandomGenerator random;
+    private volatile int state = 0;
+
+    // draws from the ThreadLocalRandom of whichever thread switches it on
+    public ConcurrentDevice() {
+        this(ThreadLocalGenerator.INSTANCE);
+    }
+
+    // the generator is shared by every caller thread, so it has to be thread-safe
+    public ConcurrentDevice(RandomGenerator random) {
+        this.random = Objects.requireNonNull(random);
+    }
+
+    @Override
+    public void on() throws IllegalStateException {
+        if (!this.tryOn()) {
+            throw new IllegalStateException();
+        }
+    }
+
+    @Override
+    public boolean tryOn() {
+        int current;
+        int next;
+        do {
+            current = this.state;
+            if ((current & FAILED) != 0) {
+                return false;
+            }
+            next = current | (this.random.nextBoolean() ? FAILED : ON);
+        } while (!STATE.weakCompareAndSet(this, current, next));
+        return (next & FAILED) == 0;
+    }
+
+    @Override
+    public void off() {
+        STATE.getAndBitwiseAnd(this, ~ON);
+    }
+
+    @Override
+    public boolean isOn() {
+        return (this.state & ON) != 0;
+    }
+
+    public boolean isFailed() {
+        return (this.state & FAILED) != 0;
+    }
+
+    @Override
+    public void reset() {
+        this.state = 0;
+    }
+
+    @Override
+    public String toString() {
+        return "ConcurrentDevice{" +
+                "policy=random" +
+                ", on=" + isOn() +
+                '}';
+    }
+}
@@ -5,4 +5,14 @@ public interface Device {
     void off();
     boolean isOn();
     void reset();
+
+    // same as on(), but reports a refusal as false instead of throwing
+    default boolean tryOn() {
+        try {
+            this.on();
+            return true;
+        } catch (IllegalStateException e) {
+            return false;
+        }
+    }
 }
@@ -0,0 +1,188 @@
+package devices;
+
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.util.random.RandomGenerator;
+
+// compact binary snapshots of device state, written to and read from a ByteBuffer at its position;
+// multi-byte values use the buffer's byte order, so encode and decode with the same order
+//
+// device record: byte flags (on, stackless failures), then the policy:
+//   byte kind, followed by
+//   never, always: nothing
+//   failAfter: int successes, int attempts
+//   random: byte (failed, has probability, skip-ahead), long generator state,
+//           then double probability and, for skip-ahead, long attempts until failure
+// fleet record: int size, the policy, then the on and failed bitmaps as long words
+//
+// counts are checked against the bytes left before anything is allocated for them
+//
+// a RandomFailing round-trips with its exact generator state, which only the SplitMix64 of its
+// default constructor, seeded and forDevice exposes: any other generator is rejected like a
+// policy without a binary form
+public final class DeviceCodec {
+    private static final byte ON = 1;
+    private static final byte STACKLESS = 2;
+    private static final byte NEVER = 1;
+    private static final byte ALWAYS = 2;
+    private static final byte FAIL_AFTER = 3;
+    private static final byte RANDOM = 4;
+    private static final byte FAILED = 1;
+    private static final byte HAS_PROBABILITY = 4;
+    private static final byte SKIP_AHEAD = 8;
+    // the flags byte and a never or always policy
+    private static final int MIN_DEVICE_SIZE = 2;
+
+    private DeviceCodec() {
+    }
+
+    public static int encodedSize(StandardDevice device) {
+        return 1 + policySize(device.failingPolicy());
+    }
+
+    public static int encodedSize(DeviceFleet fleet) {
+        return Integer.BYTES + policySize(randomFailing(fleet)) + 2 * Long.BYTES * Bits.words(fleet.size());
+    }
+
+    public static void encode(StandardDevice device, ByteBuffer buffer) {
+        buffer.put((byte) ((device.isOn() ? ON : 0) | (device.stacklessFailures() ? STACKLESS : 0)));
+        encodePolicy(device.failingPolicy(), buffer);
+    }
+
+    public static StandardDevice decode(ByteBuffer buffer) {
+        byte flags = buffer.get();
+        StandardDevice device = new StandardDevice(decodePolicy(buffer), (flags & STACKLESS) != 0);
+        device.restoreOn((flags & ON) != 0);
+        return device;
+    }
+
+    // int count, then one record per device
+    public static void encodeAll(StandardDevice[] devices, ByteBuffer buffer) {
+        buffer.putInt(devices.length);
+        for (StandardDevice device : devices) {
+            encode(device, buffer);
+        }
+    }
+
+    public static StandardDevice[] decodeAll(ByteBuffer buffer) {
+        int count = buffer.getInt();
+        if (count < 0 || (long) count * MIN_DEVICE_SIZE > buffer.remaining()) {
+            throw new IllegalArgumentException("invalid device count: " + count + " for " + buffer.remaining() + " bytes");
+        }
+        StandardDevice[] devices = new StandardDevice[count];
+        for (int i = 0; i < count; i++) {
+            devices[i] = decode(buffer);
+        }
+        return devices;
+    }
+
+    // the bitmaps go through a LongBuffer view in two bulk copies, not one put per device
+    public static void encode(DeviceFleet fleet, ByteBuffer buffer) {
+        buffer.putInt(fleet.size());
+        encodePolicy(randomFailing(fleet), buffer);
+        long[] on = fleet.onWords();
+        long[] failed = fleet.failedWords();
+        buffer.asLongBuffer().put(on).put(failed);
+        buffer.position(buffer.position() + Long.BYTES * (on.length + failed.length));
+    }
+
+    public static DeviceFleet decodeFleet(ByteBuffer buffer) {
+        int size = buffer.getInt();
+        if (size < 0) {
+            throw new IllegalArgumentException("invalid fleet size: " + size);
+        }
+        if (!(decodePolicy(buffer) instanceof RandomFailing policy)) {
+            throw new IllegalArgumentException("a fleet snapshot must hold a random policy");
+        }
+        if (2L * Long.BYTES * Bits.words(size) > buffer.remaining()) {
+            throw new IllegalArgumentException("invalid fleet size: " + size + " for " + buffer.remaining() + " bytes");
+        }
+        DeviceFleet fleet = new DeviceFleet(size, policy);
+        long[] on = fleet.onWords();
+        long[] failed = fleet.failedWords();
+        LongBuffer words = buffer.asLongBuffer();
+        words.get(on).get(failed);
+        buffer.position(buffer.position() + Long.BYTES * (on.length + failed.length));
+        return fleet;
+    }
+
+    private static RandomFailing randomFailing(DeviceFleet fleet) {
+        if (!(fleet.failingPolicy() instanceof RandomFailing policy)) {
+            throw new IllegalArgumentException("no binary form for policy " + fleet.failingPolicy().policyName());
+        }
+        return policy;
+    }
+
+    private static int policySize(FailingPolicy policy) {
+        return switch (policy) {
+            case FailingPolicies.Never never -> 1;
+            case FailingPolicies.Always always -> 1;
+            case FailingPolicies.FailAfter failAfter -> 1 + 2 * Integer.BYTES;
+            case RandomFailing randomFailing -> {
+                generator(randomFailing);
+                yield 2 + Long.BYTES
+                        + (randomFailing.hasProbability() ? Double.BYTES : 0)
+                        + (randomFailing.isSkipAhead() ? Long.BYTES : 0);
+            }
+            default -> throw new IllegalArgumentException("no binary form for policy " + policy.policyName());
+        };
+    }
+
+    private static void encodePolicy(FailingPolicy policy, ByteBuffer buffer) {
+        switch (policy) {
+            case FailingPolicies.Never never -> buffer.put(NEVER);
+            case FailingPolicies.Always always -> buffer.put(ALWAYS);
+            case FailingPolicies.FailAfter failAfter -> buffer.put(FAIL_AFTER)
+                    .putInt(failAfter.successes())
+                    .putInt(failAfter.attempts());
+            case RandomFailing randomFailing -> {
+                SplitMix64 generator = generator(randomFailing);
+                buffer.put(RANDOM).put((byte) ((randomFailing.isFailed() ? FAILED : 0)
+                        | (randomFailing.hasProbability() ? HAS_PROBABILITY : 0)
+                        | (randomFailing.isSkipAhead() ? SKIP_AHEAD : 0)));
+                buffer.putLong(generator.state());
+                if (randomFailing.hasProbability()) {
+                    buffer.putDouble(randomFailing.probability());
+                }
+                if (randomFailing.isSkipAhead()) {
+                    buffer.putLong(randomFailing.untilFailure());
+                }
+            }
+            default -> throw new IllegalArgumentException("no binary form for policy " + policy.policyName());
+        }
+    }
+
+    private static SplitMix64 generator(RandomFailing policy) {
+        if (!(policy.random() instanceof SplitMix64 generator)) {
+            throw new IllegalArgumentException("cannot capture the generator of policy " + policy.policyName()
+                    + ": " + policy.random().getClass().getName());
+        }
+        return generator;
+    }
+
+    private static FailingPolicy decodePolicy(ByteBuffer buffer) {
+        byte kind = buffer.get();
+        return switch (kind) {
+            case NEVER -> FailingPolicies.never();
+            case ALWAYS -> FailingPolicies.always();
+            case FAIL_AFTER -> {
+                FailingPolicies.FailAfter failAfter = FailingPolicies.failAfter(buffer.getInt());
+                failAfter.restoreAttempts(buffer.getInt());
+                yield failAfter;
+            }
+            case RANDOM -> {
+                byte flags = buffer.get();
+                RandomGenerator random = new SplitMix64(buffer.getLong());
+                RandomFailing randomFailing = (flags & HAS_PROBABILITY) != 0
+                        ? new RandomFailing(random, buffer.getDouble(), (flags & SKIP_AHEAD) != 0)
+                        : new RandomFailing(random);
+                if (randomFailing.isSkipAhead()) {
+                    randomFailing.restoreUntilFailure(buffer.getLong());
+                }
+                randomFailing.restoreFailed((flags & FAILED) != 0);
+                yield randomFailing;
+            }
+            default -> throw new IllegalArgumentException("unknown policy kind: " + kind);
+        };
+    }
+}
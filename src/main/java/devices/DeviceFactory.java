@@ -0,0 +1,71 @@
+package devices;
+
+import java.util.Objects;
+import java.util.function.LongFunction;
+import java.util.stream.IntStream;
+
+// builds StandardDevices in bulk, with less per device than new StandardDevice(new RandomFailing())
+// and, unlike it, reproducibly:
+// - shared(policy): every device gets the same policy, only the device is allocated. Meant for
+//   stateless policies (never(), always(), flaky(p, random) with a thread-safe random),
+//   a stateful one such as RandomFailing would be shared state of the whole fleet
+// - seeded(seed): every device gets its own RandomFailing.forDevice(seed, id), a SplitMix64
+//   whose seed is mixed on the first attempt, with no shared state between devices
+// - perDevice(policies): any policy per device id
+// ids are the array indexes plus firstId, so fill() in parallel builds the same fleet as in sequence
+public final class DeviceFactory {
+    private final LongFunction<? extends FailingPolicy> policies;
+    private final boolean stacklessFailures;
+
+    private DeviceFactory(LongFunction<? extends FailingPolicy> policies, boolean stacklessFailures) {
+        this.policies = policies;
+        this.stacklessFailures = stacklessFailures;
+    }
+
+    public static DeviceFactory shared(FailingPolicy policy) {
+        Objects.requireNonNull(policy);
+        return new DeviceFactory(id -> policy, false);
+    }
+
+    public static DeviceFactory seeded(long seed) {
+        return new DeviceFactory(id -> RandomFailing.forDevice(seed, id), false);
+    }
+
+    public static DeviceFactory perDevice(LongFunction<? extends FailingPolicy> policies) {
+        return new DeviceFactory(Objects.requireNonNull(policies), false);
+    }
+
+    // the same factory, building devices whose on() throws a preallocated exception without a stack trace
+    public DeviceFactory stacklessFailures() {
+        return new DeviceFactory(this.policies, true);
+    }
+
+    public StandardDevice create(long id) {
+        return new StandardDevice(this.policies.apply(id), this.stacklessFailures);
+    }
+
+    public StandardDevice[] createAll(int count) {
+        StandardDevice[] devices = new StandardDevice[count];
+        this.fill(devices, 0, count, 0);
+        return devices;
+    }
+
+    public void fill(StandardDevice[] devices, long firstId) {
+        this.fill(devices, 0, devices.length, firstId);
+    }
+
+    // fills devices[from, to) with the devices of ids firstId + index
+    public void fill(StandardDevice[] devices, int from, int to, long firstId) {
+        Objects.checkFromToIndex(from, to, devices.length);
+        for (int i = from; i < to; i++) {
+            devices[i] = this.create(firstId + i);
+        }
+    }
+
+    // fills the array from the common pool, in chunks of 4096 devices
+    public void parallelFill(StandardDevice[] devices, long firstId) {
+        int chunks = (devices.length + 4095) >>> 12;
+        IntStream.range(0, chunks).parallel().forEach(chunk ->
+                this.fill(devices, chunk << 12, Math.min(devices.length, (chunk + 1) << 12), firstId));
+    }
+}
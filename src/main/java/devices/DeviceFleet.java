@@ -0,0 +1,152 @@
+package devices;
+
+import java.util.Objects;
+import java.util.random.RandomGenerator;
+
+public class DeviceFleet {
+    private final int size;
+    private final long[] on;
+    private final long[] failed;
+    private final BatchFailingPolicy failingPolicy;
+
+    public DeviceFleet(int size) {
+        this(size, new RandomFailing());
+    }
+
+    public DeviceFleet(int size, RandomGenerator random) {
+        this(size, new RandomFailing(random));
+    }
+
+    public DeviceFleet(int size, BatchFailingPolicy failingPolicy) {
+        if (size < 0) {
+            throw new IllegalArgumentException("size must not be negative: " + size);
+        }
+        this.size = size;
+        this.on = new long[Bits.words(size)];
+        this.failed = new long[Bits.words(size)];
+        this.failingPolicy = Objects.requireNonNull(failingPolicy);
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public Device device(int index) {
+        Objects.checkIndex(index, this.size);
+        return new Slot(index);
+    }
+
+    public boolean isOn(int index) {
+        Objects.checkIndex(index, this.size);
+        return (this.on[index >>> 6] & (1L << index)) != 0;
+    }
+
+    public boolean isFailed(int index) {
+        Objects.checkIndex(index, this.size);
+        return (this.failed[index >>> 6] & (1L << index)) != 0;
+    }
+
+    // same contract as StandardDevice.on() applied to every device in [from, to):
+    // failing devices keep their previous state, returns how many of them failed
+    public int on(int from, int to) {
+        checkRange(from, to);
+        this.failingPolicy.attemptOn(this.failed, from, to);
+        int failures = 0;
+        for (int w = from >>> 6, last = (to - 1) >>> 6; from < to && w <= last; w++) {
+            long mask = Bits.mask(w, from, to);
+            this.on[w] |= mask & ~this.failed[w];
+            failures += Long.bitCount(mask & this.failed[w]);
+        }
+        return failures;
+    }
+
+    public void off(int from, int to) {
+        checkRange(from, to);
+        for (int w = from >>> 6, last = (to - 1) >>> 6; from < to && w <= last; w++) {
+            this.on[w] &= ~Bits.mask(w, from, to);
+        }
+    }
+
+    public void reset(int from, int to) {
+        checkRange(from, to);
+        for (int w = from >>> 6, last = (to - 1) >>> 6; from < to && w <= last; w++) {
+            long mask = Bits.mask(w, from, to);
+            this.on[w] &= ~mask;
+            this.failed[w] &= ~mask;
+        }
+    }
+
+    public String policyName() {
+        return this.failingPolicy.policyName();
+    }
+
+    public int countOn() {
+        return countOn(0, this.size);
+    }
+
+    public int countOn(int from, int to) {
+        checkRange(from, to);
+        int count = 0;
+        for (int w = from >>> 6, last = (to - 1) >>> 6; from < to && w <= last; w++) {
+            count += Long.bitCount(this.on[w] & Bits.mask(w, from, to));
+        }
+        return count;
+    }
+
+    // the live bitmaps, for DeviceCodec's bulk transfers
+    long[] onWords() {
+        return this.on;
+    }
+
+    long[] failedWords() {
+        return this.failed;
+    }
+
+    BatchFailingPolicy failingPolicy() {
+        return this.failingPolicy;
+    }
+
+    private void checkRange(int from, int to) {
+        Objects.checkFromToIndex(from, to, this.size);
+    }
+
+    private final class Slot implements Device {
+        private final int index;
+
+        private Slot(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public void on() throws IllegalStateException {
+            if (DeviceFleet.this.on(this.index, this.index + 1) != 0) {
+                throw new IllegalStateException();
+            }
+        }
+
+        @Override
+        public boolean tryOn() {
+            return DeviceFleet.this.on(this.index, this.index + 1) == 0;
+        }
+
+        @Override
+        public void off() {
+            DeviceFleet.this.off(this.index, this.index + 1);
+        }
+
+        @Override
+        public boolean isOn() {
+            return DeviceFleet.this.isOn(this.index);
+        }
+
+        @Override
+        public void reset() {
+            DeviceFleet.this.reset(this.index, this.index + 1);
+        }
+
+        @Override
+        public String toString() {
+            return "DeviceFleet.Slot{index=" + this.index + ", on=" + isOn() + '}';
+        }
+    }
+}
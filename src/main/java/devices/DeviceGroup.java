@@ -0,0 +1,210 @@
+package devices;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+// a tree of devices, e.g. room -> rack -> device: on(), off() and reset() fan out to every
+// device below, and each group keeps LongAdder counters of the devices below it that are on,
+// failed or present. A member device pushes every change of its state to all its ancestors,
+// so countOn(), anyOn() and isOn() are a few counter sums at any depth. Transitions are
+// serialized per member only, groups take no lock.
+//
+// the counters are summed independently, so while devices change a query may see a state
+// that never existed at a single instant, as with any LongAdder
+public class DeviceGroup implements Device {
+    private final String name;
+    private final DeviceGroup parent;
+    private final List<Device> children = new CopyOnWriteArrayList<>();
+    private final LongAdder size = new LongAdder();
+    private final LongAdder on = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public DeviceGroup(String name) {
+        this(name, null);
+    }
+
+    private DeviceGroup(String name, DeviceGroup parent) {
+        this.name = Objects.requireNonNull(name);
+        this.parent = parent;
+    }
+
+    public DeviceGroup addGroup(String name) {
+        DeviceGroup group = new DeviceGroup(name, this);
+        this.children.add(group);
+        return group;
+    }
+
+    // the returned device must be used instead of the added one, otherwise the group
+    // counters miss its transitions
+    public Device add(Device device) {
+        Member member = new Member(Objects.requireNonNull(device), this);
+        synchronized (member) {
+            this.children.add(member);
+            member.on = device.isOn();
+            this.propagate(1, member.on ? 1 : 0, 0);
+        }
+        return member;
+    }
+
+    // switches on every device below, all of them even when some fail, then throws if any did
+    @Override
+    public void on() throws IllegalStateException {
+        int failures = this.switchOn();
+        if (failures > 0) {
+            throw new IllegalStateException(failures + " devices of " + this.name + " failed to switch on");
+        }
+    }
+
+    @Override
+    public boolean tryOn() {
+        return this.switchOn() == 0;
+    }
+
+    @Override
+    public void off() {
+        for (Device child : this.children) {
+            child.off();
+        }
+    }
+
+    @Override
+    public void reset() {
+        for (Device child : this.children) {
+            child.reset();
+        }
+    }
+
+    // every device below is on; false for an empty group
+    @Override
+    public boolean isOn() {
+        long size = this.size.sum();
+        return size > 0 && this.on.sum() == size;
+    }
+
+    public boolean anyOn() {
+        return this.on.sum() > 0;
+    }
+
+    public long countOn() {
+        return this.on.sum();
+    }
+
+    // devices whose last switch on failed, until they are reset or switched on
+    public long countFailed() {
+        return this.failed.sum();
+    }
+
+    // the number of devices below, in every subgroup
+    public long size() {
+        return this.size.sum();
+    }
+
+    public String name() {
+        return this.name;
+    }
+
+    public DeviceGroup parent() {
+        return this.parent;
+    }
+
+    private int switchOn() {
+        int failures = 0;
+        for (Device child : this.children) {
+            if (child instanceof DeviceGroup group) {
+                failures += group.switchOn();
+            } else if (!child.tryOn()) {
+                failures++;
+            }
+        }
+        return failures;
+    }
+
+    private void propagate(long size, long on, long failed) {
+        for (DeviceGroup group = this; group != null; group = group.parent) {
+            if (size != 0) {
+                group.size.add(size);
+            }
+            if (on != 0) {
+                group.on.add(on);
+            }
+            if (failed != 0) {
+                group.failed.add(failed);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "DeviceGroup{" +
+                "name=" + this.name +
+                ", size=" + this.size() +
+                ", on=" + this.countOn() +
+                '}';
+    }
+
+    private static final class Member implements Device {
+        private final Device device;
+        private final DeviceGroup group;
+        private boolean on;
+        private boolean failed;
+
+        private Member(Device device, DeviceGroup group) {
+            this.device = device;
+            this.group = group;
+        }
+
+        @Override
+        public synchronized void on() throws IllegalStateException {
+            try {
+                this.device.on();
+            } catch (IllegalStateException e) {
+                this.update(true);
+                throw e;
+            }
+            this.update(false);
+        }
+
+        @Override
+        public synchronized boolean tryOn() {
+            boolean success = this.device.tryOn();
+            this.update(!success);
+            return success;
+        }
+
+        @Override
+        public synchronized void off() {
+            this.device.off();
+            this.update(this.failed);
+        }
+
+        @Override
+        public synchronized boolean isOn() {
+            return this.device.isOn();
+        }
+
+        @Override
+        public synchronized void reset() {
+            this.device.reset();
+            this.update(false);
+        }
+
+        private void update(boolean failed) {
+            boolean on = this.device.isOn();
+            if (on != this.on || failed != this.failed) {
+                this.group.propagate(0, Boolean.compare(on, this.on), Boolean.compare(failed, this.failed));
+                this.on = on;
+                this.failed = failed;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "DeviceGroup.Member{" +
+                    "group=" + this.group.name +
+                    ", device=" + this.device +
+                    '}';
+        }
+    }
+}
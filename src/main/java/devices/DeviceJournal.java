@@ -0,0 +1,150 @@
+package devices;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+// append-only log of device transitions, written as fixed-size records into memory-mapped
+// segment files: appending is a few stores into the mapping, a syscall only happens when a
+// segment is full, forced and the next one is mapped. A journal has a single writer.
+//
+// record layout (16 bytes): long deviceId, long (timestampMillis << 8 | transition code)
+public class DeviceJournal implements Closeable {
+    public static final int RECORD_SIZE = 16;
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private final Path directory;
+    private final long segmentSize;
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private int segmentIndex;
+    private int position;
+
+    @FunctionalInterface
+    public interface Visitor {
+        void visit(long deviceId, DeviceTransition transition, long timestampMillis);
+    }
+
+    private DeviceJournal(Path directory, int recordsPerSegment) {
+        this.directory = directory;
+        this.segmentSize = (long) recordsPerSegment * RECORD_SIZE;
+    }
+
+    // opens the journal in the given directory, appending after the records it already holds
+    public static DeviceJournal open(Path directory, int recordsPerSegment) throws IOException {
+        if (recordsPerSegment <= 0 || (long) recordsPerSegment * RECORD_SIZE > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("invalid records per segment: " + recordsPerSegment);
+        }
+        Files.createDirectories(directory);
+        DeviceJournal journal = new DeviceJournal(directory, recordsPerSegment);
+        List<Path> segments = segments(directory);
+        if (segments.isEmpty()) {
+            journal.map(0);
+        } else {
+            journal.map(segments.size() - 1);
+            while (journal.position < journal.segmentSize && journal.segment.getLong(journal.position + 8) != 0) {
+                journal.position += RECORD_SIZE;
+            }
+        }
+        return journal;
+    }
+
+    public void append(long deviceId, DeviceTransition transition) {
+        if (this.position == this.segmentSize) {
+            this.roll();
+        }
+        this.segment.putLong(this.position, deviceId);
+        this.segment.putLong(this.position + 8, System.currentTimeMillis() << 8 | transition.code());
+        this.position += RECORD_SIZE;
+    }
+
+    // forces the current segment to the storage device; full segments were already forced
+    // when the journal rolled past them, so every appended record is durable afterwards
+    public void flush() {
+        this.segment.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.segment.force();
+        this.channel.close();
+    }
+
+    public static void replay(Path directory, Visitor visitor) throws IOException {
+        for (Path path : segments(directory)) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                for (int position = 0; position + RECORD_SIZE <= segment.limit(); position += RECORD_SIZE) {
+                    long word = segment.getLong(position + 8);
+                    if (word == 0) {
+                        return;
+                    }
+                    visitor.visit(segment.getLong(position), DeviceTransition.ofCode((int) (word & 0xff)), word >>> 8);
+                }
+            }
+        }
+    }
+
+    // rebuilds the state of devices[i] from the records of device id i: a failure marks
+    // a RandomFailing policy as failed, a reset turns the device off and resets its policy
+    public static void restore(Path directory, StandardDevice[] devices) throws IOException {
+        replay(directory, (deviceId, transition, timestampMillis) -> {
+            if (deviceId < 0 || deviceId >= devices.length) {
+                return;
+            }
+            StandardDevice device = devices[(int) deviceId];
+            switch (transition) {
+                case ON -> device.restoreOn(true);
+                case OFF -> device.restoreOn(false);
+                case RESET -> device.reset();
+                case FAILURE -> {
+                    if (device.failingPolicy() instanceof RandomFailing randomFailing) {
+                        randomFailing.restoreFailed(true);
+                    }
+                }
+            }
+        });
+    }
+
+    private void roll() {
+        try {
+            this.segment.force();
+            this.channel.close();
+            this.map(this.segmentIndex + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void map(int index) throws IOException {
+        this.channel = FileChannel.open(this.directory.resolve(segmentName(index)),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.segment = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, this.segmentSize);
+        this.segmentIndex = index;
+        this.position = 0;
+    }
+
+    private static String segmentName(int index) {
+        return String.format("%s%08d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX);
+    }
+
+    private static List<Path> segments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }).sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package devices;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+// one instance is usually shared by many InstrumentedDevices; while disabled
+// every record call is a single volatile read
+public class DeviceMetrics implements DeviceMetricsMXBean {
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder successes = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder resets = new LongAdder();
+    private final DurationHistogram onDurations = new DurationHistogram();
+    private volatile boolean enabled = true;
+
+    public record Snapshot(long attempts, long successes, long failures, long resets,
+                           long onDurationCount, long onDurationP50Nanos, long onDurationP99Nanos,
+                           long onDurationMaxNanos) {
+    }
+
+    void recordAttempt(boolean success) {
+        if (this.enabled) {
+            this.attempts.increment();
+            (success ? this.successes : this.failures).increment();
+        }
+    }
+
+    void recordReset() {
+        if (this.enabled) {
+            this.resets.increment();
+        }
+    }
+
+    void recordOnDuration(long nanos) {
+        if (this.enabled) {
+            this.onDurations.record(nanos);
+        }
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(getAttempts(), getSuccesses(), getFailures(), getResets(),
+                getOnDurationCount(), getOnDurationP50Nanos(), getOnDurationP99Nanos(), getOnDurationMaxNanos());
+    }
+
+    // exposes these metrics as devices:type=DeviceMetrics,name=<name> on the platform MBean server
+    public ObjectName registerMBean(String name) throws JMException {
+        ObjectName objectName = new ObjectName("devices:type=DeviceMetrics,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        return objectName;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public long getAttempts() {
+        return this.attempts.sum();
+    }
+
+    @Override
+    public long getSuccesses() {
+        return this.successes.sum();
+    }
+
+    @Override
+    public long getFailures() {
+        return this.failures.sum();
+    }
+
+    @Override
+    public long getResets() {
+        return this.resets.sum();
+    }
+
+    @Override
+    public long getOnDurationCount() {
+        return this.onDurations.count();
+    }
+
+    @Override
+    public long getOnDurationP50Nanos() {
+        return this.onDurations.valueAtPercentile(50);
+    }
+
+    @Override
+    public long getOnDurationP99Nanos() {
+        return this.onDurations.valueAtPercentile(99);
+    }
+
+    @Override
+    public long getOnDurationMaxNanos() {
+        return this.onDurations.max();
+    }
+
+    @Override
+    public void clear() {
+        this.attempts.reset();
+        this.successes.reset();
+        this.failures.reset();
+        this.resets.reset();
+        this.onDurations.clear();
+    }
+}
@@ -0,0 +1,15 @@
+package devices;
+
+public interface DeviceMetricsMXBean {
+    boolean isEnabled();
+    void setEnabled(boolean enabled);
+    long getAttempts();
+    long getSuccesses();
+    long getFailures();
+    long getResets();
+    long getOnDurationCount();
+    long getOnDurationP50Nanos();
+    long getOnDurationP99Nanos();
+    long getOnDurationMaxNanos();
+    void clear();
+}
@@ -0,0 +1,458 @@
+package devices;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+import java.util.stream.LongStream;
+
+// devices by primitive long id, with per-policy and on/off counters and id sets kept up to date
+// by the handles register returns: counts are a couple of LongAdder sums and "which devices are
+// on" or "which devices use policy X" walk only the matching ids, never the whole registry.
+// The id sets hold primitive longs, so a transition allocates nothing; their streams read each
+// stripe at one instant but not the whole set, they are weakly consistent like the counters.
+//
+// ids are spread over segments, each an open-addressing long -> handle table behind its own
+// StampedLock: lookups are optimistic reads, writers only block their own segment
+public class DeviceRegistry {
+    private static final int SEGMENTS = 16;
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final Map<String, PolicyIndex> policies = new ConcurrentHashMap<>();
+    private final LongAdder size = new LongAdder();
+    private final LongAdder on = new LongAdder();
+    private final IdSet onIds = new IdSet();
+
+    public DeviceRegistry() {
+        for (int i = 0; i < SEGMENTS; i++) {
+            this.segments[i] = new Segment();
+        }
+    }
+
+    // the returned device must be used instead of the registered one, otherwise on(), off()
+    // and reset() are not seen by the counters
+    public Device register(long id, StandardDevice device) {
+        return this.register(id, device, device.failingPolicy().policyName());
+    }
+
+    public Device register(long id, Device device, String policyName) {
+        PolicyIndex index = this.policies.computeIfAbsent(Objects.requireNonNull(policyName), name -> new PolicyIndex());
+        Registered registered = new Registered(id, Objects.requireNonNull(device), index);
+        // the monitor is taken before the handle is visible, so a concurrent remove(id) waits
+        // until it is counted
+        synchronized (registered) {
+            if (!this.segment(id).putIfAbsent(id, registered)) {
+                throw new IllegalArgumentException("device " + id + " is already registered");
+            }
+            registered.registered = true;
+            index.count.increment();
+            index.ids.add(id);
+            this.size.increment();
+            if (device.isOn()) {
+                registered.countOn(1);
+            }
+        }
+        return registered;
+    }
+
+    // the registered handle, or null
+    public Device get(long id) {
+        return this.segment(id).get(id);
+    }
+
+    public boolean contains(long id) {
+        return this.get(id) != null;
+    }
+
+    // the handle of a removed device keeps working but no longer updates the counters; a remove
+    // racing with the register of the same id waits until the device is counted, then uncounts it
+    public boolean remove(long id) {
+        Registered registered = this.segment(id).remove(id);
+        if (registered == null) {
+            return false;
+        }
+        synchronized (registered) {
+            if (registered.device.isOn()) {
+                registered.countOn(-1);
+            }
+            registered.registered = false;
+            registered.index.count.decrement();
+            registered.index.ids.remove(id);
+            this.size.decrement();
+        }
+        return true;
+    }
+
+    public long size() {
+        return this.size.sum();
+    }
+
+    public long countOn() {
+        return this.on.sum();
+    }
+
+    public long count(String policyName) {
+        PolicyIndex index = this.policies.get(policyName);
+        return index == null ? 0 : index.count.sum();
+    }
+
+    public long countOn(String policyName) {
+        PolicyIndex index = this.policies.get(policyName);
+        return index == null ? 0 : index.on.sum();
+    }
+
+    // every registered id, segment by segment, each segment read at one instant
+    public LongStream ids() {
+        return Arrays.stream(this.segments).flatMapToLong(Segment::ids);
+    }
+
+    public LongStream idsOn() {
+        return this.onIds.stream();
+    }
+
+    public LongStream ids(String policyName) {
+        PolicyIndex index = this.policies.get(policyName);
+        return index == null ? LongStream.empty() : index.ids.stream();
+    }
+
+    public LongStream idsOn(String policyName) {
+        PolicyIndex index = this.policies.get(policyName);
+        return index == null ? LongStream.empty() : index.onIds.stream();
+    }
+
+    // every policy name registered so far
+    public Set<String> policyNames() {
+        return Set.copyOf(this.policies.keySet());
+    }
+
+    private Segment segment(long id) {
+        return this.segments[(int) (SplitMix64.mix64(id) >>> 60)];
+    }
+
+    private static final class PolicyIndex {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder on = new LongAdder();
+        private final IdSet ids = new IdSet();
+        private final IdSet onIds = new IdSet();
+    }
+
+    // striped like the registry itself, each stripe an open-addressing long table under its own
+    // monitor: only a stripe that grows allocates, and a stream copies one stripe at a time
+    private static final class IdSet {
+        private final IdStripe[] stripes = new IdStripe[SEGMENTS];
+
+        private IdSet() {
+            for (int i = 0; i < SEGMENTS; i++) {
+                this.stripes[i] = new IdStripe();
+            }
+        }
+
+        void add(long id) {
+            this.stripe(id).add(id);
+        }
+
+        void remove(long id) {
+            this.stripe(id).remove(id);
+        }
+
+        LongStream stream() {
+            return Arrays.stream(this.stripes).flatMapToLong(IdStripe::ids);
+        }
+
+        private IdStripe stripe(long id) {
+            return this.stripes[(int) (SplitMix64.mix64(id) >>> 60)];
+        }
+    }
+
+    // the layout of Segment without the values, a separate used flag marks the occupied slots
+    private static final class IdStripe {
+        private long[] keys = new long[16];
+        private boolean[] used = new boolean[16];
+        private int size;
+
+        synchronized void add(long id) {
+            if (this.find(id) >= 0) {
+                return;
+            }
+            if (2 * (this.size + 1) > this.keys.length) {
+                this.resize();
+            }
+            insert(this.keys, this.used, id);
+            this.size++;
+        }
+
+        synchronized void remove(long id) {
+            int hole = this.find(id);
+            if (hole < 0) {
+                return;
+            }
+            long[] keys = this.keys;
+            boolean[] used = this.used;
+            int mask = keys.length - 1;
+            for (int next = (hole + 1) & mask; used[next]; next = (next + 1) & mask) {
+                int home = Segment.slot(keys[next], mask);
+                if (((next - home) & mask) >= ((next - hole) & mask)) {
+                    keys[hole] = keys[next];
+                    hole = next;
+                }
+            }
+            used[hole] = false;
+            this.size--;
+        }
+
+        synchronized LongStream ids() {
+            long[] ids = new long[this.size];
+            int found = 0;
+            for (int i = 0; i < this.keys.length; i++) {
+                if (this.used[i]) {
+                    ids[found++] = this.keys[i];
+                }
+            }
+            return LongStream.of(ids);
+        }
+
+        // the slot of id, or -1
+        private int find(long id) {
+            int mask = this.keys.length - 1;
+            for (int slot = Segment.slot(id, mask); this.used[slot]; slot = (slot + 1) & mask) {
+                if (this.keys[slot] == id) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        private void resize() {
+            long[] keys = new long[this.keys.length << 1];
+            boolean[] used = new boolean[this.used.length << 1];
+            for (int i = 0; i < this.keys.length; i++) {
+                if (this.used[i]) {
+                    insert(keys, used, this.keys[i]);
+                }
+            }
+            this.keys = keys;
+            this.used = used;
+        }
+
+        private static void insert(long[] keys, boolean[] used, long id) {
+            int mask = keys.length - 1;
+            int slot = Segment.slot(id, mask);
+            while (used[slot]) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = id;
+            used[slot] = true;
+        }
+    }
+
+    // a device's transitions are serialized on its handle, so the on counters and id sets move
+    // exactly once per actual change of isOn()
+    private final class Registered implements Device {
+        private final long id;
+        private final Device device;
+        private final PolicyIndex index;
+        private boolean registered;
+
+        private Registered(long id, Device device, PolicyIndex index) {
+            this.id = id;
+            this.device = device;
+            this.index = index;
+        }
+
+        @Override
+        public synchronized void on() throws IllegalStateException {
+            boolean wasOn = this.device.isOn();
+            this.device.on();
+            this.changed(wasOn);
+        }
+
+        @Override
+        public synchronized boolean tryOn() {
+            boolean wasOn = this.device.isOn();
+            boolean success = this.device.tryOn();
+            this.changed(wasOn);
+            return success;
+        }
+
+        @Override
+        public synchronized void off() {
+            boolean wasOn = this.device.isOn();
+            this.device.off();
+            this.changed(wasOn);
+        }
+
+        @Override
+        public synchronized boolean isOn() {
+            return this.device.isOn();
+        }
+
+        @Override
+        public synchronized void reset() {
+            boolean wasOn = this.device.isOn();
+            this.device.reset();
+            this.changed(wasOn);
+        }
+
+        private void changed(boolean wasOn) {
+            boolean isOn = this.device.isOn();
+            if (this.registered && wasOn != isOn) {
+                this.countOn(isOn ? 1 : -1);
+            }
+        }
+
+        private void countOn(int delta) {
+            this.index.on.add(delta);
+            DeviceRegistry.this.on.add(delta);
+            if (delta > 0) {
+                this.index.onIds.add(this.id);
+                DeviceRegistry.this.onIds.add(this.id);
+            } else {
+                this.index.onIds.remove(this.id);
+                DeviceRegistry.this.onIds.remove(this.id);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "DeviceRegistry.Device{" +
+                    "id=" + this.id +
+                    ", device=" + this.device +
+                    '}';
+        }
+    }
+
+    // linear probing over parallel key and value arrays, a null value marks a free slot;
+    // removal shifts the rest of the cluster back instead of leaving tombstones
+    private static final class Segment {
+        private final StampedLock lock = new StampedLock();
+        private long[] keys = new long[16];
+        private Registered[] values = new Registered[16];
+        private int size;
+
+        LongStream ids() {
+            long stamp = this.lock.readLock();
+            try {
+                long[] ids = new long[this.size];
+                int found = 0;
+                for (int i = 0; i < this.values.length; i++) {
+                    if (this.values[i] != null) {
+                        ids[found++] = this.keys[i];
+                    }
+                }
+                return LongStream.of(ids);
+            } finally {
+                this.lock.unlockRead(stamp);
+            }
+        }
+
+        Registered get(long id) {
+            long stamp = this.lock.tryOptimisticRead();
+            Registered found = find(this.keys, this.values, id);
+            if (this.lock.validate(stamp)) {
+                return found;
+            }
+            stamp = this.lock.readLock();
+            try {
+                return find(this.keys, this.values, id);
+            } finally {
+                this.lock.unlockRead(stamp);
+            }
+        }
+
+        boolean putIfAbsent(long id, Registered registered) {
+            long stamp = this.lock.writeLock();
+            try {
+                if (find(this.keys, this.values, id) != null) {
+                    return false;
+                }
+                if (2 * (this.size + 1) > this.values.length) {
+                    this.resize();
+                }
+                insert(this.keys, this.values, id, registered);
+                this.size++;
+                return true;
+            } finally {
+                this.lock.unlockWrite(stamp);
+            }
+        }
+
+        Registered remove(long id) {
+            long stamp = this.lock.writeLock();
+            try {
+                long[] keys = this.keys;
+                Registered[] values = this.values;
+                int mask = values.length - 1;
+                int slot = slot(id, mask);
+                while (values[slot] != null && keys[slot] != id) {
+                    slot = (slot + 1) & mask;
+                }
+                Registered removed = values[slot];
+                if (removed == null) {
+                    return null;
+                }
+                // move back every later entry of the cluster whose home slot is not after the hole
+                int hole = slot;
+                for (int next = (hole + 1) & mask; values[next] != null; next = (next + 1) & mask) {
+                    int home = slot(keys[next], mask);
+                    if (((next - home) & mask) >= ((next - hole) & mask)) {
+                        keys[hole] = keys[next];
+                        values[hole] = values[next];
+                        hole = next;
+                    }
+                }
+                values[hole] = null;
+                this.size--;
+                return removed;
+            } finally {
+                this.lock.unlockWrite(stamp);
+            }
+        }
+
+        private void resize() {
+            long[] keys = new long[this.keys.length << 1];
+            Registered[] values = new Registered[this.values.length << 1];
+            for (int i = 0; i < this.values.length; i++) {
+                if (this.values[i] != null) {
+                    insert(keys, values, this.keys[i], this.values[i]);
+                }
+            }
+            this.keys = keys;
+            this.values = values;
+        }
+
+        // an optimistic reader may see the arrays of two different generations, hence the
+        // length check and the bounded probe; validate() discards whatever it returns then
+        private static Registered find(long[] keys, Registered[] values, long id) {
+            if (keys.length != values.length) {
+                return null;
+            }
+            int mask = values.length - 1;
+            for (int slot = slot(id, mask), probes = 0; probes < values.length; slot = (slot + 1) & mask, probes++) {
+                Registered registered = values[slot];
+                if (registered == null) {
+                    return null;
+                }
+                if (keys[slot] == id) {
+                    return registered;
+                }
+            }
+            return null;
+        }
+
+        private static void insert(long[] keys, Registered[] values, long id, Registered registered) {
+            int mask = values.length - 1;
+            int slot = slot(id, mask);
+            while (values[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = id;
+            values[slot] = registered;
+        }
+
+        private static int slot(long id, int mask) {
+            return (int) SplitMix64.mix64(id) & mask;
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package devices;
+
+// the state a device was left in by its latest transition within a publishing window
+public record DeviceStateChange(long deviceId, boolean on) {
+}
@@ -0,0 +1,275 @@
+package devices;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// publishes the state changes of tracked devices as one batch per window and subscriber.
+// Within a window only the latest state of each device is kept, and a subscriber without
+// demand keeps conflating into the same pending batch: at most capacity devices are ever
+// pending per subscriber, changes of further devices are dropped and counted.
+// Final because the constructor hands this::flush to the scheduler
+public final class DeviceStatePublisher implements Flow.Publisher<List<DeviceStateChange>>, AutoCloseable {
+    private final int capacity;
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final LongAdder dropped = new LongAdder();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "device-state-publisher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile boolean closed;
+
+    public DeviceStatePublisher(Duration window, int capacity) {
+        if (window.isNegative() || window.isZero()) {
+            throw new IllegalArgumentException("window must be positive: " + window);
+        }
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        long nanos = window.toNanos();
+        this.scheduler.scheduleAtFixedRate(this::flush, nanos, nanos, TimeUnit.NANOSECONDS);
+    }
+
+    // the returned device publishes every transition it goes through
+    public Device track(long deviceId, Device device) {
+        return new TrackedDevice(deviceId, Objects.requireNonNull(device));
+    }
+
+    public tdd.Device track(long deviceId, tdd.Device device) {
+        return new TrackedTddDevice(deviceId, Objects.requireNonNull(device));
+    }
+
+    public void publish(long deviceId, boolean on) {
+        DeviceStateChange change = new DeviceStateChange(deviceId, on);
+        for (Subscription subscription : this.subscriptions) {
+            subscription.offer(change);
+        }
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super List<DeviceStateChange>> subscriber) {
+        Subscription subscription = new Subscription(Objects.requireNonNull(subscriber));
+        subscriber.onSubscribe(subscription);
+        // under the lock of close(), so a subscription is either added before close() completes
+        // the others or sees closed
+        synchronized (this) {
+            if (!this.closed) {
+                if (!subscription.cancelled) {
+                    this.subscriptions.add(subscription);
+                    // a cancel() racing with the add either removes it or is seen here
+                    if (subscription.cancelled) {
+                        this.subscriptions.remove(subscription);
+                    }
+                }
+                return;
+            }
+        }
+        if (!subscription.cancelled) {
+            subscriber.onComplete();
+        }
+    }
+
+    // delivers the pending batch of every subscriber with demand now, without waiting for the window,
+    // or the error of an invalid request: every signal after onSubscribe comes from here or close()
+    public synchronized void flush() {
+        for (Subscription subscription : this.subscriptions) {
+            subscription.deliver();
+        }
+    }
+
+    // changes that did not fit in a subscriber's pending batch
+    public long dropped() {
+        return this.dropped.sum();
+    }
+
+    int subscribers() {
+        return this.subscriptions.size();
+    }
+
+    // delivers what can still be delivered, then completes every subscriber
+    @Override
+    public synchronized void close() {
+        this.closed = true;
+        this.scheduler.shutdownNow();
+        this.flush();
+        for (Subscription subscription : this.subscriptions) {
+            subscription.complete();
+        }
+    }
+
+    private final class Subscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super List<DeviceStateChange>> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        private Map<Long, DeviceStateChange> pending = new LinkedHashMap<>();
+        private volatile boolean cancelled;
+        private volatile IllegalArgumentException error;
+
+        private Subscription(Flow.Subscriber<? super List<DeviceStateChange>> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        // an invalid request is signalled by the next flush(), not on the caller's thread, where
+        // it could overlap an onNext
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                if (this.error == null) {
+                    this.error = new IllegalArgumentException("non-positive request: " + n);
+                }
+                return;
+            }
+            this.demand.getAndAccumulate(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+        }
+
+        @Override
+        public void cancel() {
+            this.cancelled = true;
+            DeviceStatePublisher.this.subscriptions.remove(this);
+        }
+
+        private synchronized void offer(DeviceStateChange change) {
+            if (this.pending.size() < DeviceStatePublisher.this.capacity || this.pending.containsKey(change.deviceId())) {
+                this.pending.put(change.deviceId(), change);
+            } else {
+                DeviceStatePublisher.this.dropped.increment();
+            }
+        }
+
+        private synchronized Map<Long, DeviceStateChange> takePending() {
+            Map<Long, DeviceStateChange> taken = this.pending;
+            this.pending = new LinkedHashMap<>();
+            return taken;
+        }
+
+        // only ever called from flush(), so onNext and onError calls never overlap
+        private void deliver() {
+            if (this.cancelled) {
+                return;
+            }
+            if (this.error != null) {
+                this.cancel();
+                this.subscriber.onError(this.error);
+                return;
+            }
+            if (this.demand.get() == 0) {
+                return;
+            }
+            Map<Long, DeviceStateChange> batch = this.takePending();
+            if (batch.isEmpty()) {
+                return;
+            }
+            this.demand.decrementAndGet();
+            try {
+                this.subscriber.onNext(new ArrayList<>(batch.values()));
+            } catch (RuntimeException e) {
+                this.cancel();
+            }
+        }
+
+        private void complete() {
+            if (!this.cancelled) {
+                this.cancel();
+                this.subscriber.onComplete();
+            }
+        }
+    }
+
+    private final class TrackedDevice implements Device {
+        private final long deviceId;
+        private final Device device;
+
+        private TrackedDevice(long deviceId, Device device) {
+            this.deviceId = deviceId;
+            this.device = device;
+        }
+
+        @Override
+        public void on() throws IllegalStateException {
+            this.device.on();
+            this.publishState();
+        }
+
+        @Override
+        public boolean tryOn() {
+            boolean success = this.device.tryOn();
+            this.publishState();
+            return success;
+        }
+
+        @Override
+        public void off() {
+            this.device.off();
+            this.publishState();
+        }
+
+        @Override
+        public boolean isOn() {
+            return this.device.isOn();
+        }
+
+        @Override
+        public void reset() {
+            this.device.reset();
+            this.publishState();
+        }
+
+        private void publishState() {
+            DeviceStatePublisher.this.publish(this.deviceId, this.device.isOn());
+        }
+
+        @Override
+        public String toString() {
+            return "DeviceStatePublisher.Device{" +
+                    "id=" + this.deviceId +
+                    ", device=" + this.device +
+                    '}';
+        }
+    }
+
+    private final class TrackedTddDevice implements tdd.Device {
+        private final long deviceId;
+        private final tdd.Device device;
+
+        private TrackedTddDevice(long deviceId, tdd.Device device) {
+            this.deviceId = deviceId;
+            this.device = device;
+        }
+
+        @Override
+        public boolean isOn() {
+            return this.device.isOn();
+        }
+
+        @Override
+        public void switchOn() {
+            this.device.switchOn();
+            DeviceStatePublisher.this.publish(this.deviceId, this.device.isOn());
+        }
+
+        @Override
+        public void switchOff() {
+            this.device.switchOff();
+            DeviceStatePublisher.this.publish(this.deviceId, this.device.isOn());
+        }
+
+        @Override
+        public String toString() {
+            return "DeviceStatePublisher.TddDevice{" +
+                    "id=" + this.deviceId +
+                    ", device=" + this.device +
+                    '}';
+        }
+    }
+}
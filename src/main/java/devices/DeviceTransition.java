@@ -0,0 +1,24 @@
+package devices;
+
+public enum DeviceTransition {
+    ON(1), OFF(2), RESET(3), FAILURE(4);
+
+    private static final DeviceTransition[] BY_CODE = {null, ON, OFF, RESET, FAILURE};
+    private final int code;
+
+    DeviceTransition(int code) {
+        this.code = code;
+    }
+
+    // 0 is never used, so a zeroed record marks the end of a journal
+    int code() {
+        return this.code;
+    }
+
+    static DeviceTransition ofCode(int code) {
+        if (code <= 0 || code >= BY_CODE.length) {
+            throw new IllegalArgumentException("unknown transition code: " + code);
+        }
+        return BY_CODE[code];
+    }
+}
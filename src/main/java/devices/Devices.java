@@ -0,0 +1,117 @@
+package devices;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+// adapters between tdd.Device and devices.Device: final classes holding the adapted device in a
+// final field, so they are allocated once per device and every call is a plain delegation.
+// Adapting an adapter back returns the original device instead of wrapping it twice
+public final class Devices {
+    private Devices() {
+    }
+
+    // on() switches on unless already on, off() and reset() switch off
+    public static Device fromTdd(tdd.Device device) {
+        if (device instanceof AsTdd adapter) {
+            return adapter.device;
+        }
+        return new OfTdd(device);
+    }
+
+    // switchOn() throws IllegalStateException when already on, like tdd.DeviceImpl
+    public static tdd.Device toTdd(Device device) {
+        if (device instanceof OfTdd adapter) {
+            return adapter.device;
+        }
+        return new AsTdd(device);
+    }
+
+    public static List<Device> fromTdd(List<? extends tdd.Device> devices) {
+        List<Device> adapted = new ArrayList<>(devices.size());
+        for (tdd.Device device : devices) {
+            adapted.add(fromTdd(device));
+        }
+        return adapted;
+    }
+
+    public static List<tdd.Device> toTdd(List<? extends Device> devices) {
+        List<tdd.Device> adapted = new ArrayList<>(devices.size());
+        for (Device device : devices) {
+            adapted.add(toTdd(device));
+        }
+        return adapted;
+    }
+
+    // a tdd.Device seen as a devices.Device
+    public static final class OfTdd implements Device {
+        private final tdd.Device device;
+
+        private OfTdd(tdd.Device device) {
+            this.device = Objects.requireNonNull(device);
+        }
+
+        @Override
+        public void on() throws IllegalStateException {
+            if (!this.device.isOn()) {
+                this.device.switchOn();
+            }
+        }
+
+        @Override
+        public void off() {
+            this.device.switchOff();
+        }
+
+        @Override
+        public boolean isOn() {
+            return this.device.isOn();
+        }
+
+        @Override
+        public void reset() {
+            this.device.switchOff();
+        }
+
+        @Override
+        public String toString() {
+            return "Devices.OfTdd{" +
+                    "device=" + this.device +
+                    '}';
+        }
+    }
+
+    // a devices.Device seen as a tdd.Device
+    public static final class AsTdd implements tdd.Device {
+        private final Device device;
+
+        private AsTdd(Device device) {
+            this.device = Objects.requireNonNull(device);
+        }
+
+        @Override
+        public boolean isOn() {
+            return this.device.isOn();
+        }
+
+        @Override
+        public void switchOn() {
+            if (this.device.isOn()) {
+                throw new IllegalStateException();
+            }
+            this.device.on();
+        }
+
+        @Override
+        public void switchOff() {
+            this.device.off();
+        }
+
+        @Override
+        public String toString() {
+            return "Devices.AsTdd{" +
+                    "device=" + this.device +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package devices;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// dumps device state without building a String per device: append() writes the text of
+// StandardDevice.toString() into a caller's StringBuilder or CharBuffer, and an instance streams
+// whole fleets into ByteBuffers and channels through one reusable block, encoding each distinct
+// policy name to UTF-8 only once. A dump of any size holds one block and the policy names.
+//
+// text: one "StandardDevice{policy=<name>, on=<true|false>}" line per device, in UTF-8
+// columnar, little-endian: int devices, short policies, each policy as short length and UTF-8
+// name, then one policy index per device (a byte for up to 256 policies, otherwise a short),
+// then the on flags as long words, the first device in the lowest bit of the first word.
+// The policy count and the indexes are unsigned: read them with Short.toUnsignedInt and
+// Byte.toUnsignedInt, index 200 is written as the byte -56. At most 65535 policies fit
+public final class DiagnosticWriter {
+    private static final int BLOCK_SIZE = 64 * 1024;
+    private static final byte[] PREFIX = "StandardDevice{policy=".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ON_TRUE = ", on=true}\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ON_FALSE = ", on=false}\n".getBytes(StandardCharsets.US_ASCII);
+    // the columnar header and one word, and a text line with an empty policy name, fit in any block
+    private static final int MIN_BLOCK_SIZE = Math.max(Integer.BYTES + Short.BYTES + Long.BYTES, PREFIX.length + ON_FALSE.length);
+    private final ByteBuffer block;
+    private final Map<String, byte[]> names = new HashMap<>();
+
+    public DiagnosticWriter() {
+        this(BLOCK_SIZE);
+    }
+
+    public DiagnosticWriter(int blockSize) {
+        if (blockSize < MIN_BLOCK_SIZE) {
+            throw new IllegalArgumentException("block size must be at least " + MIN_BLOCK_SIZE + ": " + blockSize);
+        }
+        this.block = ByteBuffer.allocateDirect(blockSize).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    public static StringBuilder append(StringBuilder out, StandardDevice device) {
+        return out.append("StandardDevice{policy=").append(device.failingPolicy().policyName())
+                .append(", on=").append(device.isOn()).append('}');
+    }
+
+    // throws BufferOverflowException, leaving the buffer unchanged, if the text does not fit
+    public static CharBuffer append(CharBuffer out, StandardDevice device) {
+        String name = device.failingPolicy().policyName();
+        String on = device.isOn() ? ", on=true}" : ", on=false}";
+        if (out.remaining() < PREFIX.length + name.length() + on.length()) {
+            throw new BufferOverflowException();
+        }
+        return out.put("StandardDevice{policy=").put(name).put(on);
+    }
+
+    // the text line of the device; throws BufferOverflowException, leaving the buffer unchanged,
+    // if it does not fit
+    public void put(ByteBuffer out, StandardDevice device) {
+        byte[] name = this.encodedName(device.failingPolicy().policyName());
+        byte[] on = device.isOn() ? ON_TRUE : ON_FALSE;
+        if (out.remaining() < PREFIX.length + name.length + on.length) {
+            throw new BufferOverflowException();
+        }
+        out.put(PREFIX).put(name).put(on);
+    }
+
+    // returns the number of bytes written
+    public long write(Iterable<? extends StandardDevice> devices, WritableByteChannel channel) throws IOException {
+        this.block.clear();
+        long written = 0;
+        for (StandardDevice device : devices) {
+            byte[] name = this.encodedName(device.failingPolicy().policyName());
+            if (this.block.remaining() < PREFIX.length + name.length + ON_FALSE.length) {
+                written += this.flush(channel);
+            }
+            if (this.block.remaining() < PREFIX.length + name.length + ON_FALSE.length) {
+                throw new IllegalArgumentException("policy name longer than the block: " + name.length + " bytes");
+            }
+            this.block.put(PREFIX).put(name).put(device.isOn() ? ON_TRUE : ON_FALSE);
+        }
+        return written + this.flush(channel);
+    }
+
+    // returns the number of bytes written
+    public long writeColumnar(List<? extends StandardDevice> devices, WritableByteChannel channel) throws IOException {
+        Map<String, Integer> indexes = new HashMap<>();
+        List<byte[]> policies = new ArrayList<>();
+        for (StandardDevice device : devices) {
+            String name = device.failingPolicy().policyName();
+            if (!indexes.containsKey(name)) {
+                indexes.put(name, policies.size());
+                policies.add(this.encodedName(name));
+            }
+        }
+        if (policies.size() > 0xFFFF) {
+            throw new IllegalArgumentException("too many policies for a columnar dump: " + policies.size());
+        }
+        this.block.clear();
+        long written = 0;
+        this.block.putInt(devices.size()).putShort((short) policies.size());
+        for (byte[] name : policies) {
+            if (this.block.remaining() < Short.BYTES + name.length) {
+                written += this.flush(channel);
+            }
+            if (this.block.remaining() < Short.BYTES + name.length) {
+                throw new IllegalArgumentException("policy name longer than the block: " + name.length + " bytes");
+            }
+            this.block.putShort((short) name.length).put(name);
+        }
+        boolean wide = policies.size() > 1 << 8;
+        for (StandardDevice device : devices) {
+            if (this.block.remaining() < Short.BYTES) {
+                written += this.flush(channel);
+            }
+            int index = indexes.get(device.failingPolicy().policyName());
+            if (wide) {
+                this.block.putShort((short) index);
+            } else {
+                this.block.put((byte) index);
+            }
+        }
+        long word = 0;
+        int bit = 0;
+        for (StandardDevice device : devices) {
+            word |= (device.isOn() ? 1L : 0L) << bit;
+            if (++bit == 64) {
+                written += this.putWord(word, channel);
+                word = 0;
+                bit = 0;
+            }
+        }
+        if (bit != 0) {
+            written += this.putWord(word, channel);
+        }
+        return written + this.flush(channel);
+    }
+
+    private long putWord(long word, WritableByteChannel channel) throws IOException {
+        long written = this.block.remaining() < Long.BYTES ? this.flush(channel) : 0;
+        this.block.putLong(word);
+        return written;
+    }
+
+    private long flush(WritableByteChannel channel) throws IOException {
+        this.block.flip();
+        long written = this.block.remaining();
+        while (this.block.hasRemaining()) {
+            channel.write(this.block);
+        }
+        this.block.clear();
+        return written;
+    }
+
+    private byte[] encodedName(String name) {
+        byte[] encoded = this.names.get(name);
+        if (encoded == null) {
+            encoded = name.getBytes(StandardCharsets.UTF_8);
+            if (encoded.length > Short.MAX_VALUE) {
+                throw new IllegalArgumentException("policy name too long: " + encoded.length + " bytes");
+            }
+            this.names.put(name, encoded);
+        }
+        return encoded;
+    }
+}
@@ -0,0 +1,266 @@
+package devices;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
+
+// keeps devices on for onTime and off for offTime, each period stretched by up to jitter, on a
+// hashed timing wheel: every device sits in exactly one bucket as an int slot and its due tick
+// in a long[], so memory is a few arrays growing with the number of devices, whatever the
+// periods. Each tick() handles one bucket: devices due now transition, the others, due in a
+// later turn of the wheel, stay. A scheduler is driven by a single thread: nothing synchronizes
+// add() with the ticks of start(executor), so every device is added before starting it.
+//
+// periods and jitter are whole ticks, capped at Integer.MAX_VALUE each; delays add up in longs
+//
+// when switching on fails the device is reset and the retry policy decides when to try again; once it
+// gives up the device starts an off period as if it had been switched off. A device that throws
+// from a transition is counted in errors() and starts an off period too, it is never dropped
+public class DutyCycleScheduler {
+    private static final int INITIAL_CAPACITY = 16;
+    private final Duration tick;
+    private final RetryPolicy retryPolicy;
+    private final RandomGenerator random;
+    private final int[][] buckets;
+    private final int[] bucketSizes;
+    private final int mask;
+    private int[] scratch = new int[INITIAL_CAPACITY];
+    private long now = 0;
+    private int size = 0;
+    private Device[] devices = new Device[INITIAL_CAPACITY];
+    private long[] due = new long[INITIAL_CAPACITY];
+    private int[] onTicks = new int[INITIAL_CAPACITY];
+    private int[] offTicks = new int[INITIAL_CAPACITY];
+    private int[] jitterTicks = new int[INITIAL_CAPACITY];
+    private int[] failedAttempts = new int[INITIAL_CAPACITY];
+    private long transitions = 0;
+    private long failures = 0;
+    private long givenUp = 0;
+    private long errors = 0;
+
+    // the delay before the next attempt after the given number of failed ones
+    @FunctionalInterface
+    public interface RetryPolicy {
+        // a delay in ticks, at least 1, or a negative value to give up
+        long retryDelay(int failedAttempts);
+
+        static RetryPolicy never() {
+            return failedAttempts -> -1;
+        }
+
+        static RetryPolicy fixed(int maxRetries, long delayTicks) {
+            checkDelay(delayTicks);
+            return failedAttempts -> failedAttempts <= maxRetries ? delayTicks : -1;
+        }
+
+        // delayTicks, 2 * delayTicks, 4 * delayTicks, ... up to Long.MAX_VALUE, never wrapping
+        static RetryPolicy exponential(int maxRetries, long delayTicks) {
+            checkDelay(delayTicks);
+            return failedAttempts -> {
+                if (failedAttempts > maxRetries) {
+                    return -1;
+                }
+                int shift = Math.min(Math.max(failedAttempts - 1, 0), 62);
+                return delayTicks > Long.MAX_VALUE >> shift ? Long.MAX_VALUE : delayTicks << shift;
+            };
+        }
+
+        private static void checkDelay(long delayTicks) {
+            if (delayTicks < 1) {
+                throw new IllegalArgumentException("delay must be at least one tick: " + delayTicks);
+            }
+        }
+    }
+
+    // wheelSize is rounded up to a power of two; periods longer than the wheel just take more turns
+    public DutyCycleScheduler(int wheelSize, Duration tick, RetryPolicy retryPolicy, RandomGenerator random) {
+        if (wheelSize <= 0 || wheelSize > 1 << 30) {
+            throw new IllegalArgumentException("invalid wheel size: " + wheelSize);
+        }
+        if (tick.isNegative() || tick.isZero()) {
+            throw new IllegalArgumentException("tick must be positive: " + tick);
+        }
+        int buckets = wheelSize == 1 ? 1 : Integer.highestOneBit(wheelSize - 1) << 1;
+        this.tick = tick;
+        this.retryPolicy = Objects.requireNonNull(retryPolicy);
+        this.random = Objects.requireNonNull(random);
+        this.buckets = new int[buckets][];
+        this.bucketSizes = new int[buckets];
+        this.mask = buckets - 1;
+    }
+
+    // the device is first switched on within the next 1 + jitter ticks; returns its slot.
+    // Must not run while start(executor) is ticking
+    public int add(Device device, Duration onTime, Duration offTime, Duration jitter) {
+        Objects.requireNonNull(device);
+        if (this.size == this.devices.length) {
+            this.grow();
+        }
+        int slot = this.size++;
+        this.devices[slot] = device;
+        this.onTicks[slot] = Math.max(1, this.ticks(onTime));
+        this.offTicks[slot] = Math.max(1, this.ticks(offTime));
+        this.jitterTicks[slot] = this.ticks(jitter);
+        this.schedule(slot, 1 + this.jitter(slot));
+        return slot;
+    }
+
+    // advances the wheel by one tick and returns the number of transitions it made
+    public int tick() {
+        long now = ++this.now;
+        int bucket = (int) (now & this.mask);
+        int count = this.bucketSizes[bucket];
+        if (count == 0) {
+            return 0;
+        }
+        // the bucket is emptied first, so rescheduling into it while iterating is safe
+        if (this.scratch.length < count) {
+            this.scratch = new int[Math.max(count, this.scratch.length << 1)];
+        }
+        int[] slots = this.scratch;
+        System.arraycopy(this.buckets[bucket], 0, slots, 0, count);
+        this.bucketSizes[bucket] = 0;
+        int made = 0;
+        for (int i = 0; i < count; i++) {
+            int slot = slots[i];
+            if (this.due[slot] != now) {
+                this.append(bucket, slot);
+                continue;
+            }
+            try {
+                if (this.transition(slot)) {
+                    made++;
+                }
+            } catch (RuntimeException e) {
+                this.errors++;
+                this.failedAttempts[slot] = 0;
+                // transition() schedules last, so the slot is still due now unless it failed after that
+                if (this.due[slot] == now) {
+                    this.schedule(slot, this.offTicks[slot]);
+                }
+            }
+        }
+        this.transitions += made;
+        return made;
+    }
+
+    public void advance(long ticks) {
+        for (long i = 0; i < ticks; i++) {
+            this.tick();
+        }
+    }
+
+    // ticks at a fixed rate on the given executor, which must not run two ticks at once; add()
+    // must not be called any more once started
+    public ScheduledFuture<?> start(ScheduledExecutorService executor) {
+        long nanos = this.tick.toNanos();
+        return executor.scheduleAtFixedRate(this::tick, nanos, nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public long now() {
+        return this.now;
+    }
+
+    public long transitions() {
+        return this.transitions;
+    }
+
+    // failed switch ons
+    public long failures() {
+        return this.failures;
+    }
+
+    // times the retry policy gave up on a device
+    public long givenUp() {
+        return this.givenUp;
+    }
+
+    // transitions that threw
+    public long errors() {
+        return this.errors;
+    }
+
+    private boolean transition(int slot) {
+        Device device = this.devices[slot];
+        if (device.isOn()) {
+            device.off();
+            this.schedule(slot, this.offTicks[slot] + this.jitter(slot));
+            return true;
+        }
+        // tryOn() rather than on(): no exception per failure, StandardDevice never builds one
+        if (!device.tryOn()) {
+            this.failures++;
+            device.reset();
+            long delay = this.retryPolicy.retryDelay(++this.failedAttempts[slot]);
+            if (delay < 0) {
+                this.givenUp++;
+                this.failedAttempts[slot] = 0;
+                this.schedule(slot, this.offTicks[slot] + this.jitter(slot));
+            } else {
+                this.schedule(slot, Math.max(1, delay));
+            }
+            return false;
+        }
+        this.failedAttempts[slot] = 0;
+        this.schedule(slot, this.onTicks[slot] + this.jitter(slot));
+        return true;
+    }
+
+    // the due tick of a slot
+    long due(int slot) {
+        return this.due[Objects.checkIndex(slot, this.size)];
+    }
+
+    private void schedule(int slot, long delay) {
+        long due = this.now + Math.min(delay, Long.MAX_VALUE - this.now);
+        this.due[slot] = due;
+        this.append((int) (due & this.mask), slot);
+    }
+
+    private void append(int bucket, int slot) {
+        int[] slots = this.buckets[bucket];
+        int count = this.bucketSizes[bucket];
+        if (slots == null) {
+            slots = this.buckets[bucket] = new int[4];
+        } else if (count == slots.length) {
+            slots = this.buckets[bucket] = Arrays.copyOf(slots, count << 1);
+        }
+        slots[count] = slot;
+        this.bucketSizes[bucket] = count + 1;
+    }
+
+    private long jitter(int slot) {
+        int jitter = this.jitterTicks[slot];
+        return jitter == 0 ? 0 : this.random.nextLong(jitter + 1L);
+    }
+
+    // rounded up, without going through nanoseconds that overflow past 292 years
+    private int ticks(Duration duration) {
+        if (duration.isNegative()) {
+            throw new IllegalArgumentException("duration must not be negative: " + duration);
+        }
+        long ticks = duration.dividedBy(this.tick);
+        if (this.tick.multipliedBy(ticks).compareTo(duration) < 0) {
+            ticks++;
+        }
+        return (int) Math.min(Integer.MAX_VALUE, ticks);
+    }
+
+    private void grow() {
+        int capacity = this.devices.length << 1;
+        this.devices = Arrays.copyOf(this.devices, capacity);
+        this.due = Arrays.copyOf(this.due, capacity);
+        this.onTicks = Arrays.copyOf(this.onTicks, capacity);
+        this.offTicks = Arrays.copyOf(this.offTicks, capacity);
+        this.jitterTicks = Arrays.copyOf(this.jitterTicks, capacity);
+        this.failedAttempts = Arrays.copyOf(this.failedAttempts, capacity);
+    }
+}
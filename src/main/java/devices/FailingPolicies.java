@@ -0,0 +1,391 @@
+package devices;
+
+import java.util.Objects;
+import java.util.function.LongSupplier;
+import java.util.random.RandomGenerator;
+
+// every policy here is a final class holding its collaborators in final fields, no lambdas.
+// A device's own call to attemptOn() sees one receiver type per policy class, but the calls a
+// combinator makes to its parts are one call site shared by every instance of that combinator:
+// once a process builds several different compositions they turn megamorphic, just like a
+// chain of lambdas (see FailingPoliciesBenchmark)
+public final class FailingPolicies {
+    private FailingPolicies() {
+    }
+
+    public static Never never() {
+        return new Never();
+    }
+
+    public static Always always() {
+        return new Always();
+    }
+
+    public static FailAfter failAfter(int successes) {
+        return new FailAfter(successes);
+    }
+
+    public static Flaky flaky(double probability, RandomGenerator random) {
+        return new Flaky(probability, random);
+    }
+
+    public static TimeWindow timeWindow(long periodMillis, long failingMillis) {
+        return new TimeWindow(periodMillis, failingMillis, System::currentTimeMillis);
+    }
+
+    public static CircuitBreaker circuitBreaker(FailingPolicy policy, int failureThreshold, int openAttempts) {
+        return new CircuitBreaker(policy, failureThreshold, openAttempts);
+    }
+
+    public static And and(FailingPolicy first, FailingPolicy second) {
+        return new And(first, second);
+    }
+
+    public static Or or(FailingPolicy first, FailingPolicy second) {
+        return new Or(first, second);
+    }
+
+    public static FirstN firstN(int attempts, FailingPolicy policy) {
+        return new FirstN(attempts, policy);
+    }
+
+    public static AfterN afterN(int attempts, FailingPolicy policy) {
+        return new AfterN(attempts, policy);
+    }
+
+    private static int requireNonNegative(int value, String name) {
+        if (value < 0) {
+            throw new IllegalArgumentException(name + " must not be negative: " + value);
+        }
+        return value;
+    }
+
+    // never fails
+    public static final class Never implements FailingPolicy {
+        @Override
+        public boolean attemptOn() {
+            return true;
+        }
+
+        @Override
+        public void reset() {
+        }
+
+        @Override
+        public String policyName() {
+            return "never";
+        }
+    }
+
+    // always fails
+    public static final class Always implements FailingPolicy {
+        @Override
+        public boolean attemptOn() {
+            return false;
+        }
+
+        @Override
+        public void reset() {
+        }
+
+        @Override
+        public String policyName() {
+            return "always";
+        }
+    }
+
+    // the first successes attempts succeed, then every attempt fails until reset
+    public static final class FailAfter implements FailingPolicy {
+        private final int successes;
+        private final String name;
+        private int attempts = 0;
+
+        private FailAfter(int successes) {
+            this.successes = requireNonNegative(successes, "successes");
+            this.name = "failAfter(" + successes + ")";
+        }
+
+        @Override
+        public boolean attemptOn() {
+            if (this.attempts < this.successes) {
+                this.attempts++;
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void reset() {
+            this.attempts = 0;
+        }
+
+        @Override
+        public String policyName() {
+            return this.name;
+        }
+
+        int successes() {
+            return this.successes;
+        }
+
+        int attempts() {
+            return this.attempts;
+        }
+
+        void restoreAttempts(int attempts) {
+            this.attempts = attempts;
+        }
+    }
+
+    // every attempt fails with the given probability, independently of the previous ones: the
+    // next attempt may succeed again. RandomFailing.withProbability draws the same way but stays
+    // failed until reset
+    public static final class Flaky implements FailingPolicy {
+        private final RandomGenerator random;
+        private final long threshold;
+        private final String name;
+
+        private Flaky(double probability, RandomGenerator random) {
+            this.threshold = RandomFailing.threshold(probability);
+            this.random = Objects.requireNonNull(random);
+            this.name = "flaky(" + probability + ")";
+        }
+
+        @Override
+        public boolean attemptOn() {
+            return !RandomFailing.draw(this.random, this.threshold);
+        }
+
+        @Override
+        public void reset() {
+        }
+
+        @Override
+        public String policyName() {
+            return this.name;
+        }
+    }
+
+    // fails during the first failingMillis of every periodMillis
+    public static final class TimeWindow implements FailingPolicy {
+        private final long periodMillis;
+        private final long failingMillis;
+        private final LongSupplier clockMillis;
+        private final String name;
+
+        TimeWindow(long periodMillis, long failingMillis, LongSupplier clockMillis) {
+            if (periodMillis <= 0 || failingMillis < 0 || failingMillis > periodMillis) {
+                throw new IllegalArgumentException("invalid window: " + failingMillis + "ms every " + periodMillis + "ms");
+            }
+            this.periodMillis = periodMillis;
+            this.failingMillis = failingMillis;
+            this.clockMillis = Objects.requireNonNull(clockMillis);
+            this.name = "timeWindow(" + failingMillis + "/" + periodMillis + "ms)";
+        }
+
+        @Override
+        public boolean attemptOn() {
+            return Math.floorMod(this.clockMillis.getAsLong(), this.periodMillis) >= this.failingMillis;
+        }
+
+        @Override
+        public void reset() {
+        }
+
+        @Override
+        public String policyName() {
+            return this.name;
+        }
+    }
+
+    // after failureThreshold consecutive failures of the policy the breaker opens: the next
+    // openAttempts attempts fail without consulting the policy, then it is half-open and one
+    // trial attempt goes through. A successful trial closes the breaker, a failed one opens it
+    // again straight away, without waiting for failureThreshold more failures
+    public static final class CircuitBreaker implements FailingPolicy {
+        private final FailingPolicy policy;
+        private final int failureThreshold;
+        private final int openAttempts;
+        private final String name;
+        private int consecutiveFailures = 0;
+        private int remainingOpen = 0;
+        private boolean halfOpen = false;
+
+        private CircuitBreaker(FailingPolicy policy, int failureThreshold, int openAttempts) {
+            this.policy = Objects.requireNonNull(policy);
+            if (failureThreshold <= 0) {
+                throw new IllegalArgumentException("failureThreshold must be positive: " + failureThreshold);
+            }
+            this.failureThreshold = failureThreshold;
+            this.openAttempts = requireNonNegative(openAttempts, "openAttempts");
+            this.name = "circuitBreaker(" + policy.policyName() + ")";
+        }
+
+        @Override
+        public boolean attemptOn() {
+            if (this.remainingOpen > 0) {
+                this.remainingOpen--;
+                return false;
+            }
+            if (this.policy.attemptOn()) {
+                this.consecutiveFailures = 0;
+                this.halfOpen = false;
+                return true;
+            }
+            if (this.halfOpen || ++this.consecutiveFailures >= this.failureThreshold) {
+                this.consecutiveFailures = 0;
+                this.remainingOpen = this.openAttempts;
+                this.halfOpen = true;
+            }
+            return false;
+        }
+
+        public boolean isOpen() {
+            return this.remainingOpen > 0;
+        }
+
+        // the next attempt is a trial
+        public boolean isHalfOpen() {
+            return this.halfOpen && this.remainingOpen == 0;
+        }
+
+        @Override
+        public void reset() {
+            this.consecutiveFailures = 0;
+            this.remainingOpen = 0;
+            this.halfOpen = false;
+            this.policy.reset();
+        }
+
+        @Override
+        public String policyName() {
+            return this.name;
+        }
+    }
+
+    // succeeds when both succeed, evaluated left to right like &&
+    public static final class And implements FailingPolicy {
+        private final FailingPolicy first;
+        private final FailingPolicy second;
+        private final String name;
+
+        private And(FailingPolicy first, FailingPolicy second) {
+            this.first = Objects.requireNonNull(first);
+            this.second = Objects.requireNonNull(second);
+            this.name = "and(" + first.policyName() + ", " + second.policyName() + ")";
+        }
+
+        @Override
+        public boolean attemptOn() {
+            return this.first.attemptOn() && this.second.attemptOn();
+        }
+
+        @Override
+        public void reset() {
+            this.first.reset();
+            this.second.reset();
+        }
+
+        @Override
+        public String policyName() {
+            return this.name;
+        }
+    }
+
+    // succeeds when either succeeds, evaluated left to right like ||
+    public static final class Or implements FailingPolicy {
+        private final FailingPolicy first;
+        private final FailingPolicy second;
+        private final String name;
+
+        private Or(FailingPolicy first, FailingPolicy second) {
+            this.first = Objects.requireNonNull(first);
+            this.second = Objects.requireNonNull(second);
+            this.name = "or(" + first.policyName() + ", " + second.policyName() + ")";
+        }
+
+        @Override
+        public boolean attemptOn() {
+            return this.first.attemptOn() || this.second.attemptOn();
+        }
+
+        @Override
+        public void reset() {
+            this.first.reset();
+            this.second.reset();
+        }
+
+        @Override
+        public String policyName() {
+            return this.name;
+        }
+    }
+
+    // the policy decides the first attempts, every later attempt succeeds until reset
+    public static final class FirstN implements FailingPolicy {
+        private final int attempts;
+        private final FailingPolicy policy;
+        private final String name;
+        private int made = 0;
+
+        private FirstN(int attempts, FailingPolicy policy) {
+            this.attempts = requireNonNegative(attempts, "attempts");
+            this.policy = Objects.requireNonNull(policy);
+            this.name = "firstN(" + attempts + ", " + policy.policyName() + ")";
+        }
+
+        @Override
+        public boolean attemptOn() {
+            if (this.made < this.attempts) {
+                this.made++;
+                return this.policy.attemptOn();
+            }
+            return true;
+        }
+
+        @Override
+        public void reset() {
+            this.made = 0;
+            this.policy.reset();
+        }
+
+        @Override
+        public String policyName() {
+            return this.name;
+        }
+    }
+
+    // the first attempts succeed, the policy decides every later attempt until reset
+    public static final class AfterN implements FailingPolicy {
+        private final int attempts;
+        private final FailingPolicy policy;
+        private final String name;
+        private int made = 0;
+
+        private AfterN(int attempts, FailingPolicy policy) {
+            this.attempts = requireNonNegative(attempts, "attempts");
+            this.policy = Objects.requireNonNull(policy);
+            this.name = "afterN(" + attempts + ", " + policy.policyName() + ")";
+        }
+
+        @Override
+        public boolean attemptOn() {
+            if (this.made < this.attempts) {
+                this.made++;
+                return true;
+            }
+            return this.policy.attemptOn();
+        }
+
+        @Override
+        public void reset() {
+            this.made = 0;
+            this.policy.reset();
+        }
+
+        @Override
+        public String policyName() {
+            return this.name;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package devices;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Objects;
+
+// records the decisions of a whole fleet into one file, read back by FleetReplayer: every device
+// gets its own stream of bits but all of them share one channel and one 64 KiB block, so a
+// million devices cost a million small heap objects rather than a million files and blocks.
+// Each stream packs its decisions into a long word and appends it once 64 decisions are made,
+// under the recorder's lock; close() appends the partial words.
+//
+// file layout, little-endian: long records, int devices (the highest device id + 1), then
+// records of int device, int decisions (1 to 64), long word, the first decision of the record
+// in the lowest bit. A device's records are in the order of its decisions
+public class FleetRecorder implements Closeable {
+    static final int HEADER_SIZE = Long.BYTES + Integer.BYTES;
+    static final int RECORD_SIZE = Integer.BYTES + Integer.BYTES + Long.BYTES;
+    private static final int BLOCK_SIZE = 64 * 1024;
+    private final FileChannel channel;
+    private final ByteBuffer block = ByteBuffer.allocateDirect(BLOCK_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private final List<Stream> streams = new ArrayList<>();
+    private final BitSet recorded = new BitSet();
+    private long records = 0;
+    private boolean closed = false;
+
+    public FleetRecorder(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.channel.write(ByteBuffer.allocate(HEADER_SIZE), 0);
+        this.channel.position(HEADER_SIZE);
+    }
+
+    // the policy to give the device instead of the recorded one; a device is recorded once
+    public synchronized FailingPolicy record(int device, FailingPolicy policy) {
+        Objects.requireNonNull(policy);
+        if (this.closed) {
+            throw new IllegalStateException("recorder closed");
+        }
+        if (device < 0 || this.recorded.get(device)) {
+            throw new IllegalArgumentException("device " + device + " is negative or already recorded");
+        }
+        this.recorded.set(device);
+        Stream stream = new Stream(this, device, policy);
+        this.streams.add(stream);
+        return stream;
+    }
+
+    public synchronized long records() {
+        return this.records;
+    }
+
+    // appends the partial words of every stream and the header; a stream used after close throws
+    @Override
+    public synchronized void close() throws IOException {
+        if (this.closed) {
+            return;
+        }
+        try {
+            for (Stream stream : this.streams) {
+                if ((stream.decisions & 63) != 0) {
+                    this.append(stream.device, (int) (stream.decisions & 63), stream.word);
+                }
+            }
+            this.closed = true;
+            this.writeBlock();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN)
+                    .putLong(0, this.records).putInt(Long.BYTES, this.recorded.length());
+            this.channel.write(header, 0);
+            this.channel.force(false);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            this.closed = true;
+            this.channel.close();
+        }
+    }
+
+    private synchronized void append(int device, int decisions, long word) {
+        if (this.closed) {
+            throw new IllegalStateException("recorder closed");
+        }
+        this.block.putInt(device).putInt(decisions).putLong(word);
+        this.records++;
+        if (!this.block.hasRemaining()) {
+            this.writeBlock();
+        }
+    }
+
+    private void writeBlock() {
+        try {
+            this.block.flip();
+            while (this.block.hasRemaining()) {
+                this.channel.write(this.block);
+            }
+            this.block.clear();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // one device's decisions; like the device it records, it is not thread-safe
+    private static final class Stream implements FailingPolicy {
+        private final FleetRecorder recorder;
+        private final int device;
+        private final FailingPolicy policy;
+        private long decisions = 0;
+        private long word = 0;
+
+        private Stream(FleetRecorder recorder, int device, FailingPolicy policy) {
+            this.recorder = recorder;
+            this.device = device;
+            this.policy = policy;
+        }
+
+        @Override
+        public boolean attemptOn() {
+            boolean success = this.policy.attemptOn();
+            this.word |= (success ? 1L : 0L) << this.decisions;
+            if ((++this.decisions & 63) == 0) {
+                this.recorder.append(this.device, 64, this.word);
+                this.word = 0;
+            }
+            return success;
+        }
+
+        @Override
+        public void reset() {
+            this.policy.reset();
+        }
+
+        @Override
+        public String policyName() {
+            return this.policy.policyName();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package devices;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+// plays back a FleetRecorder file through one read-only mapping: opening it chains the records
+// of each device (an int per device and an int per 64 decisions), then every device replays its
+// own decisions in order, like ReplayingFailingPolicy. The streams of different devices can be
+// replayed from different threads
+public class FleetReplayer implements Closeable {
+    private static final int HEADER_SIZE = FleetRecorder.HEADER_SIZE;
+    private static final int RECORD_SIZE = FleetRecorder.RECORD_SIZE;
+    private final FileChannel channel;
+    private final MappedByteBuffer records;
+    private final int devices;
+    private final int[] first;
+    private final int[] next;
+
+    public FleetReplayer(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            if (this.channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("recording too large to map: " + file);
+            }
+            this.records = this.channel.map(FileChannel.MapMode.READ_ONLY, 0, this.channel.size());
+            this.records.order(ByteOrder.LITTLE_ENDIAN);
+            long count = this.records.getLong(0);
+            this.devices = this.records.getInt(Long.BYTES);
+            if (count < 0 || this.devices < 0 || HEADER_SIZE + count * RECORD_SIZE > this.channel.size()) {
+                throw new IOException("truncated recording: " + file);
+            }
+            this.first = new int[this.devices];
+            this.next = new int[(int) count];
+            int[] last = new int[this.devices];
+            Arrays.fill(this.first, -1);
+            for (int record = 0; record < count; record++) {
+                int device = this.records.getInt(HEADER_SIZE + record * RECORD_SIZE);
+                if (device < 0 || device >= this.devices) {
+                    throw new IOException("corrupt recording, device " + device + ": " + file);
+                }
+                if (this.first[device] < 0) {
+                    this.first[device] = record;
+                } else {
+                    this.next[last[device]] = record;
+                }
+                this.next[record] = -1;
+                last[device] = record;
+            }
+        } catch (IOException | RuntimeException e) {
+            this.channel.close();
+            throw e;
+        }
+    }
+
+    // a device that was never recorded gets an empty stream
+    public FailingPolicy replay(int device) {
+        return new Stream(this, Objects.checkIndex(device, this.devices));
+    }
+
+    public int devices() {
+        return this.devices;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+
+    // reset() does not rewind, as in ReplayingFailingPolicy
+    private static final class Stream implements FailingPolicy {
+        private final FleetReplayer replayer;
+        private final int device;
+        private int record;
+        private long word;
+        private int decisions = 0;
+        private int position = 0;
+
+        private Stream(FleetReplayer replayer, int device) {
+            this.replayer = replayer;
+            this.device = device;
+            this.record = replayer.first[device];
+        }
+
+        // throws NoSuchElementException once every recorded decision of the device was played back
+        @Override
+        public boolean attemptOn() {
+            if (this.position == this.decisions) {
+                if (this.record < 0) {
+                    throw new NoSuchElementException("all recorded decisions of device " + this.device + " were replayed");
+                }
+                int offset = HEADER_SIZE + this.record * RECORD_SIZE;
+                this.decisions = this.replayer.records.getInt(offset + Integer.BYTES);
+                this.word = this.replayer.records.getLong(offset + 2 * Integer.BYTES);
+                this.position = 0;
+                this.record = this.replayer.next[this.record];
+            }
+            return (this.word >>> this.position++ & 1) != 0;
+        }
+
+        @Override
+        public void reset() {
+        }
+
+        @Override
+        public String policyName() {
+            return "replay";
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package devices;
+
+import java.util.Objects;
+
+public class InstrumentedDevice implements Device {
+    private static final long OFF = -1;
+    private final Device device;
+    private final DeviceMetrics metrics;
+    private long onSince = OFF;
+
+    public InstrumentedDevice(Device device, DeviceMetrics metrics) {
+        this.device = Objects.requireNonNull(device);
+        this.metrics = Objects.requireNonNull(metrics);
+    }
+
+    @Override
+    public void on() throws IllegalStateException {
+        try {
+            this.device.on();
+        } catch (IllegalStateException e) {
+            this.metrics.recordAttempt(false);
+            throw e;
+        }
+        this.metrics.recordAttempt(true);
+        this.switchedOn();
+    }
+
+    @Override
+    public boolean tryOn() {
+        boolean success = this.device.tryOn();
+        this.metrics.recordAttempt(success);
+        if (success) {
+            this.switchedOn();
+        }
+        return success;
+    }
+
+    @Override
+    public void off() {
+        this.device.off();
+        this.switchedOff();
+    }
+
+    @Override
+    public boolean isOn() {
+        return this.device.isOn();
+    }
+
+    @Override
+    public void reset() {
+        this.device.reset();
+        this.metrics.recordReset();
+        this.switchedOff();
+    }
+
+    private void switchedOn() {
+        if (this.onSince == OFF && this.metrics.isEnabled()) {
+            this.onSince = System.nanoTime();
+        }
+    }
+
+    private void switchedOff() {
+        if (this.onSince != OFF) {
+            this.metrics.recordOnDuration(System.nanoTime() - this.onSince);
+            this.onSince = OFF;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "InstrumentedDevice{" +
+                "device=" + this.device +
+                '}';
+    }
+}
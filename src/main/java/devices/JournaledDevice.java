@@ -0,0 +1,58 @@
+package devices;
+
+import java.util.Objects;
+
+public class JournaledDevice implements Device {
+    private final long deviceId;
+    private final Device device;
+    private final DeviceJournal journal;
+
+    public JournaledDevice(long deviceId, Device device, DeviceJournal journal) {
+        this.deviceId = deviceId;
+        this.device = Objects.requireNonNull(device);
+        this.journal = Objects.requireNonNull(journal);
+    }
+
+    @Override
+    public void on() throws IllegalStateException {
+        try {
+            this.device.on();
+        } catch (IllegalStateException e) {
+            this.journal.append(this.deviceId, DeviceTransition.FAILURE);
+            throw e;
+        }
+        this.journal.append(this.deviceId, DeviceTransition.ON);
+    }
+
+    @Override
+    public boolean tryOn() {
+        boolean success = this.device.tryOn();
+        this.journal.append(this.deviceId, success ? DeviceTransition.ON : DeviceTransition.FAILURE);
+        return success;
+    }
+
+    @Override
+    public void off() {
+        this.device.off();
+        this.journal.append(this.deviceId, DeviceTransition.OFF);
+    }
+
+    @Override
+    public boolean isOn() {
+        return this.device.isOn();
+    }
+
+    @Override
+    public void reset() {
+        this.device.reset();
+        this.journal.append(this.deviceId, DeviceTransition.RESET);
+    }
+
+    @Override
+    public String toString() {
+        return "JournaledDevice{" +
+                "id=" + this.deviceId +
+                ", device=" + this.device +
+                '}';
+    }
+}
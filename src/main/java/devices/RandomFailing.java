@@ -1,24 +1,225 @@
 package devices;
 
-import java.util.Random;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
 
-public class RandomFailing implements FailingPolicy {
-    private final RandomGenerator random = new Random();
+// fails each attempt with a given probability, 1/2 unless created by withProbability or skipAhead,
+// and stays failed until reset (FailingPolicies.flaky draws the same way but recovers every attempt):
+// - 1/2 draws one nextBoolean() per attempt, or one nextLong() per 64 devices in a batch
+// - withProbability compares the top 53 bits of nextLong() with a threshold computed once
+// - skipAhead draws how many attempts until the next failure, from a geometric distribution,
+//   once per failure: at p = 0.001 that is one draw per thousand attempts
+public class RandomFailing implements FailingPolicy, BatchFailingPolicy {
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    private static final long HALF = -1;
+    private final RandomGenerator random;
+    private final double probability;
+    private final long threshold;
+    private final boolean skipAhead;
+    private final double logComplement;
+    private final String name;
     private boolean failed = false;
+    // skip-ahead only: attempts left up to and including the next failure, 0 when not drawn yet
+    private long untilFailure = 0;
+
+    // a SplitMix64 seeded from the constructing thread's ThreadLocalRandom: not reproducible, but
+    // uncontended, unlike new Random(), and DeviceCodec can capture its state
+    public RandomFailing() {
+        this(new SplitMix64(ThreadLocalRandom.current().nextLong()));
+    }
+
+    public RandomFailing(RandomGenerator random) {
+        this.random = Objects.requireNonNull(random);
+        this.probability = 0.5;
+        this.threshold = HALF;
+        this.skipAhead = false;
+        this.logComplement = Double.NaN;
+        this.name = "random";
+    }
+
+    RandomFailing(RandomGenerator random, double probability, boolean skipAhead) {
+        this.threshold = threshold(probability);
+        this.random = Objects.requireNonNull(random);
+        this.probability = probability;
+        this.skipAhead = skipAhead;
+        this.logComplement = Math.log1p(-probability);
+        this.name = "random(" + probability + ")";
+    }
+
+    // sticky: the first failure lasts until reset, unlike FailingPolicies.flaky(probability, random)
+    public static RandomFailing withProbability(double probability, RandomGenerator random) {
+        return new RandomFailing(random, probability, false);
+    }
+
+    // the same distribution of failures as withProbability, with far fewer draws at low probabilities
+    public static RandomFailing skipAhead(double probability, RandomGenerator random) {
+        return new RandomFailing(random, probability, true);
+    }
+
+    // a SplitMix64 stream, whose state DeviceCodec can snapshot and restore exactly
+    public static RandomFailing seeded(long seed) {
+        return new RandomFailing(new SplitMix64(seed));
+    }
+
+    // e.g. of("L64X128MixRandom", 42)
+    public static RandomFailing of(String algorithm, long seed) {
+        return new RandomFailing(RandomGeneratorFactory.of(algorithm).create(seed));
+    }
+
+    // the stream only depends on seed and deviceId, not on which thread or in which order devices
+    // are created; nothing is computed until the first attempt
+    public static RandomFailing forDevice(long seed, long deviceId) {
+        return new RandomFailing(SplitMix64.lazy(seed + GOLDEN_GAMMA * (deviceId + 1)));
+    }
+
+    // draws from the calling thread's ThreadLocalRandom: never contended, but not reproducible
+    public static RandomFailing perThread() {
+        return new RandomFailing(ThreadLocalGenerator.INSTANCE);
+    }
+
+    // an independent policy, e.g. one per worker thread, derived from this policy's generator
+    public RandomFailing split() {
+        RandomGenerator split;
+        if (this.random instanceof SplitMix64 splitMix) {
+            split = splitMix.split();
+        } else if (this.random instanceof RandomGenerator.SplittableGenerator splittable) {
+            split = splittable.split();
+        } else {
+            throw new UnsupportedOperationException(this.random.getClass().getName() + " is not splittable");
+        }
+        return this.threshold == HALF ? new RandomFailing(split) : new RandomFailing(split, this.probability, this.skipAhead);
+    }
+
     @Override
     public boolean attemptOn() {
-        this.failed = this.failed || random.nextBoolean();
+        this.failed = this.failed || this.fails();
         return !this.failed;
     }
 
+    // at 1/2 one nextLong() decides 64 devices, words whose devices all failed already draw nothing;
+    // otherwise every device not failed yet is decided on its own, skip-ahead jumps over whole words
+    @Override
+    public void attemptOn(long[] failed, int from, int to) {
+        Objects.checkFromToIndex(from, to, failed.length << 6);
+        for (int w = from >>> 6, last = (to - 1) >>> 6; from < to && w <= last; w++) {
+            long mask = Bits.mask(w, from, to);
+            if ((failed[w] & mask) == mask) {
+                continue;
+            }
+            if (this.threshold == HALF) {
+                failed[w] |= this.random.nextLong() & mask;
+            } else if (this.skipAhead) {
+                failed[w] |= this.skipAhead(mask & ~failed[w]);
+            } else {
+                for (long candidates = mask & ~failed[w]; candidates != 0; candidates &= candidates - 1) {
+                    if (draw(this.random, this.threshold)) {
+                        failed[w] |= candidates & -candidates;
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean fails() {
+        if (this.threshold == HALF) {
+            return this.random.nextBoolean();
+        }
+        if (!this.skipAhead) {
+            return draw(this.random, this.threshold);
+        }
+        if (this.untilFailure == 0) {
+            this.untilFailure = this.drawUntilFailure();
+        }
+        return --this.untilFailure == 0;
+    }
+
+    // the candidates that fail, counting down untilFailure over them in order
+    private long skipAhead(long candidates) {
+        long failures = 0;
+        int remaining = Long.bitCount(candidates);
+        while (remaining > 0) {
+            if (this.untilFailure == 0) {
+                this.untilFailure = this.drawUntilFailure();
+            }
+            if (this.untilFailure > remaining) {
+                this.untilFailure -= remaining;
+                break;
+            }
+            for (long skipped = 1; skipped < this.untilFailure; skipped++) {
+                candidates &= candidates - 1;
+            }
+            failures |= candidates & -candidates;
+            candidates &= candidates - 1;
+            remaining -= (int) this.untilFailure;
+            this.untilFailure = 0;
+        }
+        return failures;
+    }
+
+    // the threshold of draw() for a probability in [0, 1], shared with FailingPolicies.Flaky
+    static long threshold(double probability) {
+        if (!(probability >= 0 && probability <= 1)) {
+            throw new IllegalArgumentException("probability must be in [0, 1]: " + probability);
+        }
+        return (long) (probability * 0x1p53);
+    }
+
+    // true with probability threshold / 2^53: the top 53 bits of one nextLong() against the threshold
+    static boolean draw(RandomGenerator random, long threshold) {
+        return (random.nextLong() >>> 11) < threshold;
+    }
+
+    // the number of the attempt that fails next, 1 for the very next one: geometric with parameter p
+    private long drawUntilFailure() {
+        if (this.probability == 0) {
+            return Long.MAX_VALUE;
+        }
+        double attempts = Math.log(1 - this.random.nextDouble()) / this.logComplement;
+        return attempts >= Long.MAX_VALUE - 1 ? Long.MAX_VALUE : (long) attempts + 1;
+    }
+
     @Override
     public void reset() {
         this.failed = false;
     }
 
+    public double probability() {
+        return this.probability;
+    }
+
+    RandomGenerator random() {
+        return this.random;
+    }
+
+    // true unless the probability is the default 1/2
+    boolean hasProbability() {
+        return this.threshold != HALF;
+    }
+
+    boolean isSkipAhead() {
+        return this.skipAhead;
+    }
+
+    long untilFailure() {
+        return this.untilFailure;
+    }
+
+    void restoreUntilFailure(long untilFailure) {
+        this.untilFailure = untilFailure;
+    }
+
+    boolean isFailed() {
+        return this.failed;
+    }
+
+    void restoreFailed(boolean failed) {
+        this.failed = failed;
+    }
+
     @Override
     public String policyName() {
-        return "random";
+        return this.name;
     }
 }
@@ -0,0 +1,109 @@
+package devices;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+// records every decision of the policy it decorates as one bit (1 = success) into a file that
+// ReplayingFailingPolicy plays back. Bits are packed into longs and written in 8 KiB blocks,
+// so recording costs a shift and an or per attempt; the file is complete once closed.
+//
+// every recorder holds an open file and its own direct block: fine for a few devices, not for a
+// fleet, where FleetRecorder writes the decisions of every device into one shared file
+//
+// file layout, little-endian: long decisions, short name length, the policy name in UTF-8,
+// then the decisions as long words, the first decision in the lowest bit of the first word
+public class RecordingFailingPolicy implements FailingPolicy, Closeable {
+    private static final int BLOCK_SIZE = 8 * 1024;
+    private final FailingPolicy policy;
+    private final FileChannel channel;
+    private final ByteBuffer block = ByteBuffer.allocateDirect(BLOCK_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private long decisions = 0;
+    private long word = 0;
+    private boolean closed = false;
+
+    public RecordingFailingPolicy(FailingPolicy policy, Path file) throws IOException {
+        this.policy = Objects.requireNonNull(policy);
+        byte[] name = policy.policyName().getBytes(StandardCharsets.UTF_8);
+        if (name.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("policy name too long: " + name.length + " bytes");
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer header = ByteBuffer.allocate(Long.BYTES + Short.BYTES + name.length).order(ByteOrder.LITTLE_ENDIAN);
+        header.putLong(0).putShort((short) name.length).put(name).flip();
+        while (header.hasRemaining()) {
+            this.channel.write(header);
+        }
+    }
+
+    @Override
+    public boolean attemptOn() {
+        boolean success = this.policy.attemptOn();
+        // no branch on the decision itself, random decisions would mispredict half the time
+        this.word |= (success ? 1L : 0L) << this.decisions;
+        if ((++this.decisions & 63) == 0) {
+            this.block.putLong(this.word);
+            this.word = 0;
+            if (!this.block.hasRemaining()) {
+                this.writeBlock();
+            }
+        }
+        return success;
+    }
+
+    @Override
+    public void reset() {
+        this.policy.reset();
+    }
+
+    @Override
+    public String policyName() {
+        return this.policy.policyName();
+    }
+
+    public long decisions() {
+        return this.decisions;
+    }
+
+    // writes the last partial word and the number of decisions; closing again does nothing
+    @Override
+    public void close() throws IOException {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        if ((this.decisions & 63) != 0) {
+            this.block.putLong(this.word);
+        }
+        try {
+            this.writeBlock();
+            ByteBuffer count = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN).putLong(0, this.decisions);
+            this.channel.write(count, 0);
+            this.channel.force(false);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            this.channel.close();
+        }
+    }
+
+    private void writeBlock() {
+        try {
+            this.block.flip();
+            while (this.block.hasRemaining()) {
+                this.channel.write(this.block);
+            }
+            this.block.clear();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
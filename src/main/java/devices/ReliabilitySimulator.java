@@ -0,0 +1,123 @@
+package devices;
+
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+// runs every device through a number of on/off cycles, resetting it after each failure.
+// Devices are split in fixed chunks simulated in parallel; every device draws from its own
+// stream derived from (seed, device id) and chunk statistics are merged in chunk order,
+// so the result only depends on the seed, never on the number of cores.
+public final class ReliabilitySimulator {
+    private static final int CHUNK_SIZE = 1024;
+    private static final double Z_95 = 1.959963984540054;
+    private final PolicyFactory policies;
+
+    @FunctionalInterface
+    public interface PolicyFactory {
+        FailingPolicy create(long seed, long deviceId);
+    }
+
+    public ReliabilitySimulator() {
+        this(RandomFailing::forDevice);
+    }
+
+    public ReliabilitySimulator(PolicyFactory policies) {
+        this.policies = Objects.requireNonNull(policies);
+    }
+
+    public SimulationResult simulate(int devices, int cycles, long seed) {
+        return this.simulate(devices, cycles, seed, ForkJoinPool.commonPool());
+    }
+
+    public SimulationResult simulate(int devices, int cycles, long seed, ForkJoinPool pool) {
+        if (devices <= 0 || cycles <= 0) {
+            throw new IllegalArgumentException("devices and cycles must be positive: " + devices + ", " + cycles);
+        }
+        int chunks = (devices + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        Stats[] stats = new Stats[chunks];
+        pool.submit(() -> IntStream.range(0, chunks).parallel().forEach(chunk -> stats[chunk] =
+                this.simulateChunk(chunk * CHUNK_SIZE, Math.min(devices, (chunk + 1) * CHUNK_SIZE), cycles, seed))).join();
+        Stats total = new Stats();
+        for (Stats chunk : stats) {
+            total.merge(chunk);
+        }
+        return total.result(devices, cycles);
+    }
+
+    private Stats simulateChunk(int from, int to, int cycles, long seed) {
+        Stats stats = new Stats();
+        for (int id = from; id < to; id++) {
+            StandardDevice device = new StandardDevice(this.policies.create(seed, id));
+            long successes = 0;
+            long failures = 0;
+            for (int cycle = 0; cycle < cycles; cycle++) {
+                if (device.tryOn()) {
+                    successes++;
+                    device.off();
+                } else {
+                    failures++;
+                    device.reset();
+                }
+            }
+            stats.successes += successes;
+            stats.failures += failures;
+            stats.successSquares += (double) successes * successes;
+            stats.failureSquares += (double) failures * failures;
+            stats.successFailureProducts += (double) successes * failures;
+            double availability = (double) successes / cycles;
+            stats.availabilitySquares += availability * availability;
+        }
+        return stats;
+    }
+
+    private static final class Stats {
+        private long successes;
+        private long failures;
+        // per device sums for the variance of the ratio successes / failures
+        private double successSquares;
+        private double failureSquares;
+        private double successFailureProducts;
+        private double availabilitySquares;
+
+        private void merge(Stats other) {
+            this.successes += other.successes;
+            this.failures += other.failures;
+            this.successSquares += other.successSquares;
+            this.failureSquares += other.failureSquares;
+            this.successFailureProducts += other.successFailureProducts;
+            this.availabilitySquares += other.availabilitySquares;
+        }
+
+        private SimulationResult result(int devices, int cycles) {
+            double availability = (double) this.successes / ((long) devices * cycles);
+            double availabilityError = Z_95 * standardError(this.availabilitySquares, availability, devices);
+            // successful cycles over failures, so the streak still running at the end is not lost
+            double mttf = this.failures == 0 ? Double.NaN : (double) this.successes / this.failures;
+            double mttfError = Z_95 * this.ratioStandardError(mttf, devices);
+            return new SimulationResult(devices, cycles, this.successes, this.failures,
+                    availability, availability - availabilityError, availability + availabilityError,
+                    mttf, mttf - mttfError, mttf + mttfError);
+        }
+
+        // delta method for a ratio of per device totals, devices being the independent clusters:
+        // Var(S / F) ~ sum((s - R f)^2) / (n (n - 1) fMean^2), with R = S / F
+        private double ratioStandardError(double ratio, int devices) {
+            if (devices < 2 || this.failures == 0) {
+                return Double.NaN;
+            }
+            double residualSquares = Math.max(0, this.successSquares - 2 * ratio * this.successFailureProducts
+                    + ratio * ratio * this.failureSquares);
+            double failureMean = (double) this.failures / devices;
+            return Math.sqrt(residualSquares / ((double) devices * (devices - 1))) / failureMean;
+        }
+
+        private static double standardError(double sumOfSquares, double mean, long samples) {
+            if (samples < 2) {
+                return Double.NaN;
+            }
+            double variance = Math.max(0, (sumOfSquares - samples * mean * mean) / (samples - 1));
+            return Math.sqrt(variance / samples);
+        }
+    }
+}
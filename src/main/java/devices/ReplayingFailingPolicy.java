@@ -0,0 +1,88 @@
+package devices;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.NoSuchElementException;
+
+// plays back the decisions a RecordingFailingPolicy wrote, in order, reading the file through a
+// read-only mapping one long word at a time. reset() does not rewind: the recording already
+// holds whatever the recorded policy decided after its resets, rewind() starts over
+public class ReplayingFailingPolicy implements FailingPolicy, Closeable {
+    private final FileChannel channel;
+    private final MappedByteBuffer decisions;
+    private final long count;
+    private final int wordsOffset;
+    private final String name;
+    private long position = 0;
+    private long word;
+
+    public ReplayingFailingPolicy(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            if (this.channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("recording too large to map: " + file);
+            }
+            this.decisions = this.channel.map(FileChannel.MapMode.READ_ONLY, 0, this.channel.size());
+            this.decisions.order(ByteOrder.LITTLE_ENDIAN);
+            this.count = this.decisions.getLong(0);
+            int nameLength = this.decisions.getShort(Long.BYTES);
+            byte[] name = new byte[nameLength];
+            this.decisions.get(Long.BYTES + Short.BYTES, name);
+            this.name = new String(name, StandardCharsets.UTF_8);
+            this.wordsOffset = Long.BYTES + Short.BYTES + nameLength;
+            if (this.count < 0 || this.wordsOffset + Long.BYTES * ((this.count + 63) >>> 6) > this.channel.size()) {
+                throw new IOException("truncated recording: " + file);
+            }
+        } catch (IOException | RuntimeException e) {
+            this.channel.close();
+            throw e;
+        }
+    }
+
+    // throws NoSuchElementException once every recorded decision was played back
+    @Override
+    public boolean attemptOn() {
+        long position = this.position;
+        if (position == this.count) {
+            throw new NoSuchElementException("all " + this.count + " recorded decisions were replayed");
+        }
+        if ((position & 63) == 0) {
+            this.word = this.decisions.getLong(this.wordsOffset + (int) (position >>> 6) * Long.BYTES);
+        }
+        this.position = position + 1;
+        return (this.word >>> position & 1) != 0;
+    }
+
+    @Override
+    public void reset() {
+    }
+
+    // the name of the recorded policy
+    @Override
+    public String policyName() {
+        return this.name;
+    }
+
+    public long decisions() {
+        return this.count;
+    }
+
+    public long remaining() {
+        return this.count - this.position;
+    }
+
+    public void rewind() {
+        this.position = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+}
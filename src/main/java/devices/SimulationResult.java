@@ -0,0 +1,8 @@
+package devices;
+
+// availability is the fraction of successful switch-on attempts, meanTimeToFailure the mean
+// number of successful cycles before a failure; both come with a 95% confidence interval
+public record SimulationResult(long devices, long cycles, long successes, long failures,
+                               double availability, double availabilityLow, double availabilityHigh,
+                               double meanTimeToFailure, double meanTimeToFailureLow, double meanTimeToFailureHigh) {
+}
@@ -0,0 +1,56 @@
+package devices;
+
+import java.util.random.RandomGenerator;
+
+// the SplitMix64 generator: its whole state is one long, so it can be captured and restored exactly
+final class SplitMix64 implements RandomGenerator {
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    private long state;
+    // false until the seed given to lazy() is mixed into the state, on first use
+    private boolean seeded;
+
+    SplitMix64(long state) {
+        this.state = state;
+        this.seeded = true;
+    }
+
+    private SplitMix64(long seed, boolean seeded) {
+        this.state = seed;
+        this.seeded = seeded;
+    }
+
+    // the same stream as new SplitMix64(mix64(seed)), mixing the seed only when first used
+    static SplitMix64 lazy(long seed) {
+        return new SplitMix64(seed, false);
+    }
+
+    @Override
+    public long nextLong() {
+        if (!this.seeded) {
+            this.seed();
+        }
+        return mix64(this.state += GOLDEN_GAMMA);
+    }
+
+    SplitMix64 split() {
+        return new SplitMix64(mix64(this.nextLong()));
+    }
+
+    long state() {
+        if (!this.seeded) {
+            this.seed();
+        }
+        return this.state;
+    }
+
+    private void seed() {
+        this.state = mix64(this.state);
+        this.seeded = true;
+    }
+
+    static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
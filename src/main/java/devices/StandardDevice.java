@@ -4,19 +4,36 @@ import java.util.Objects;
 
 public class StandardDevice implements Device {
     private FailingPolicy failingPolicy;
+    private final boolean stacklessFailures;
     private boolean on = false;
+    private IllegalStateException stacklessFailure;
 
     public StandardDevice(FailingPolicy failingPolicy) {
+        this(failingPolicy, false);
+    }
+
+    // with stacklessFailures, on() throws the device's own preallocated exception without a stack trace
+    public StandardDevice(FailingPolicy failingPolicy, boolean stacklessFailures) {
         this.failingPolicy = Objects.requireNonNull(failingPolicy);
+        this.stacklessFailures = stacklessFailures;
     }
     //...
 
     @Override
     public void on() throws IllegalStateException {
         if (!this.failingPolicy.attemptOn()){
-            throw new IllegalStateException();
+            throw this.stacklessFailures ? this.stacklessFailure() : new IllegalStateException();
+        }
+        this.on = true;
+    }
+
+    @Override
+    public boolean tryOn() {
+        if (!this.failingPolicy.attemptOn()) {
+            return false;
         }
         this.on = true;
+        return true;
     }
 
     @Override
@@ -35,6 +52,29 @@ public class StandardDevice implements Device {
         this.failingPolicy.reset();
     }
 
+    FailingPolicy failingPolicy() {
+        return this.failingPolicy;
+    }
+
+    boolean stacklessFailures() {
+        return this.stacklessFailures;
+    }
+
+    // allocated on the first failure, never shared between devices, so threads do not race on it.
+    // IllegalStateException has no constructor that disables suppression: one that had exceptions
+    // added to it, e.g. by a try-with-resources around on(), is replaced instead of piling them up
+    private IllegalStateException stacklessFailure() {
+        IllegalStateException failure = this.stacklessFailure;
+        if (failure == null || failure.getSuppressed().length != 0) {
+            failure = this.stacklessFailure = new StacklessIllegalStateException();
+        }
+        return failure;
+    }
+
+    void restoreOn(boolean on) {
+        this.on = on;
+    }
+
     @Override
     public String toString() {
         return "StandardDevice{" +
@@ -42,4 +82,22 @@ public class StandardDevice implements Device {
                 ", on=" + on +
                 '}';
     }
+
+    private static final class StacklessIllegalStateException extends IllegalStateException {
+        private static final long serialVersionUID = 1L;
+
+        private StacklessIllegalStateException() {
+            super("device failed to switch on");
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+
+        // the stack trace stays empty, as with a Throwable whose stack trace is not writable
+        @Override
+        public void setStackTrace(StackTraceElement[] stackTrace) {
+        }
+    }
 }
@@ -0,0 +1,19 @@
+package devices;
+
+import java.util.BitSet;
+
+// failed and timedOut hold the indexes of the devices in the list given to the controller
+public record SwitchOnReport(int devices, int succeeded, long retries, BitSet failed, BitSet timedOut) {
+
+    public int failures() {
+        return this.failed.cardinality();
+    }
+
+    public int timeouts() {
+        return this.timedOut.cardinality();
+    }
+
+    public boolean allSucceeded() {
+        return this.succeeded == this.devices;
+    }
+}
@@ -0,0 +1,38 @@
+package devices;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
+// draws every value from ThreadLocalRandom.current() of the calling thread: one instance can be
+// shared by every thread, which the ThreadLocalRandom instances themselves must never be
+final class ThreadLocalGenerator implements RandomGenerator {
+    static final ThreadLocalGenerator INSTANCE = new ThreadLocalGenerator();
+
+    private ThreadLocalGenerator() {
+    }
+
+    @Override
+    public long nextLong() {
+        return ThreadLocalRandom.current().nextLong();
+    }
+
+    @Override
+    public int nextInt() {
+        return ThreadLocalRandom.current().nextInt();
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        return ThreadLocalRandom.current().nextInt(bound);
+    }
+
+    @Override
+    public boolean nextBoolean() {
+        return ThreadLocalRandom.current().nextBoolean();
+    }
+
+    @Override
+    public double nextDouble() {
+        return ThreadLocalRandom.current().nextDouble();
+    }
+}
@@ -0,0 +1,75 @@
+package tdd;
+
+// state machine presets for StateMachineDevice, numbered so that both share off, on, switchOn and switchOff:
+// - onOff(): DeviceImpl, switchOn fails when already on, switchOff always succeeds
+// - extended(): off -switchOn-> booting -booted-> on -sleep-> standby -switchOn-> on,
+//   fail from booting, on or standby to error, switchOff from any of these or error to off,
+//   service from off or error to maintenance and restore back to off; nothing else is allowed.
+//   extendedBuilder() gives the same definition to add guards or transitions to
+public final class DeviceStates {
+    public static final int OFF = 0;
+    public static final int ON = 1;
+    public static final int STANDBY = 2;
+    public static final int BOOTING = 3;
+    public static final int ERROR = 4;
+    public static final int MAINTENANCE = 5;
+    public static final int SWITCH_ON = 0;
+    public static final int SWITCH_OFF = 1;
+    public static final int SLEEP = 2;
+    public static final int BOOTED = 3;
+    public static final int FAIL = 4;
+    public static final int SERVICE = 5;
+    public static final int RESTORE = 6;
+    private static final StateMachine ON_OFF = StateMachine.builder()
+            .state("off", false)
+            .state("on", true)
+            .event("switchOn")
+            .event("switchOff")
+            .transition("off", "switchOn", "on")
+            .transition("off", "switchOff", "off")
+            .transition("on", "switchOff", "off")
+            .build();
+
+    private DeviceStates() {
+    }
+
+    public static StateMachine onOff() {
+        return ON_OFF;
+    }
+
+    public static StateMachine.Builder extendedBuilder() {
+        return StateMachine.builder()
+                .state("off", false)
+                .state("on", true)
+                .state("standby", false)
+                .state("booting", false)
+                .state("error", false)
+                .state("maintenance", false)
+                .event("switchOn")
+                .event("switchOff")
+                .event("sleep")
+                .event("booted")
+                .event("fail")
+                .event("service")
+                .event("restore")
+                .transition("off", "switchOn", "booting")
+                .transition("standby", "switchOn", "on")
+                .transition("booting", "booted", "on")
+                .transition("on", "sleep", "standby")
+                .transition("booting", "fail", "error")
+                .transition("on", "fail", "error")
+                .transition("standby", "fail", "error")
+                .transition("off", "switchOff", "off")
+                .transition("on", "switchOff", "off")
+                .transition("standby", "switchOff", "off")
+                .transition("booting", "switchOff", "off")
+                .transition("error", "switchOff", "off")
+                .transition("off", "service", "maintenance")
+                .transition("error", "service", "maintenance")
+                .transition("maintenance", "restore", "off");
+    }
+
+    public static StateMachine extended() {
+        return extendedBuilder().build();
+    }
+}
@@ -0,0 +1,255 @@
+package tdd;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+// a finite state machine compiled into lookup tables: the cell of a state and an event is
+// state << eventShift | event, targets[cell] is the next state (the state itself when the event
+// is not allowed there) and accepted[cell] is 1 or 0, so a transition is two array loads.
+// A guard can veto a transition at run time; only cells with a guard pay for calling it.
+//
+// states are numbered 0..63 and events 0..255 in the order they are declared in the builder,
+// states of a fleet fit in a byte[] that apply() moves all at once
+public final class StateMachine {
+    public static final int REJECTED = -1;
+    private final String[] states;
+    private final String[] events;
+    private final int eventShift;
+    private final byte[] targets;
+    private final byte[] accepted;
+    private final Guard[] guards;
+    private final boolean[] guardedEvents;
+    private final long onStates;
+    private final int initialState;
+
+    // decides at run time whether index, a device or a slot of a batch, may go from one state to another
+    @FunctionalInterface
+    public interface Guard {
+        boolean allows(int index, int from, int to);
+    }
+
+    private StateMachine(Builder builder) {
+        this.states = builder.states.toArray(new String[0]);
+        this.events = builder.events.toArray(new String[0]);
+        this.eventShift = 32 - Integer.numberOfLeadingZeros(Math.max(1, this.events.length - 1));
+        int cells = this.states.length << this.eventShift;
+        this.targets = new byte[cells];
+        this.accepted = new byte[cells];
+        this.guards = new Guard[cells];
+        this.guardedEvents = new boolean[this.events.length];
+        for (int state = 0; state < this.states.length; state++) {
+            Arrays.fill(this.targets, state << this.eventShift, (state + 1) << this.eventShift, (byte) state);
+        }
+        for (int[] transition : builder.transitions) {
+            int cell = transition[0] << this.eventShift | transition[1];
+            this.targets[cell] = (byte) transition[2];
+            this.accepted[cell] = 1;
+        }
+        for (int i = 0; i < builder.guards.size(); i++) {
+            int[] guarded = builder.guarded.get(i);
+            int cell = guarded[0] << this.eventShift | guarded[1];
+            if (this.accepted[cell] == 0) {
+                throw new IllegalArgumentException("guard on a missing transition: "
+                        + this.states[guarded[0]] + " on " + this.events[guarded[1]]);
+            }
+            this.guards[cell] = builder.guards.get(i);
+            this.guardedEvents[guarded[1]] = true;
+        }
+        this.onStates = builder.onStates;
+        this.initialState = builder.initialState;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    // the next state, or REJECTED if the event is not allowed in this state or its guard vetoes it
+    public int fire(int state, int event, int index) {
+        int cell = state << this.eventShift | Objects.checkIndex(event, this.events.length);
+        if (this.accepted[cell] == 0) {
+            return REJECTED;
+        }
+        int target = this.targets[cell];
+        Guard guard = this.guards[cell];
+        if (guard != null && !guard.allows(index, state, target)) {
+            return REJECTED;
+        }
+        return target;
+    }
+
+    public int fire(int state, int event) {
+        return this.fire(state, event, 0);
+    }
+
+    // fires the event on every state, leaving rejected ones unchanged; returns how many were rejected
+    public int apply(byte[] states, int event) {
+        return this.apply(states, 0, states.length, event);
+    }
+
+    public int apply(byte[] states, int from, int to, int event) {
+        Objects.checkFromToIndex(from, to, states.length);
+        Objects.checkIndex(event, this.events.length);
+        int rejected = 0;
+        if (!this.guardedEvents[event]) {
+            // no guard for this event anywhere: no branch per state
+            for (int i = from; i < to; i++) {
+                int cell = states[i] << this.eventShift | event;
+                rejected += 1 - this.accepted[cell];
+                states[i] = this.targets[cell];
+            }
+        } else {
+            for (int i = from; i < to; i++) {
+                int next = this.fire(states[i], event, i);
+                if (next == REJECTED) {
+                    rejected++;
+                } else {
+                    states[i] = (byte) next;
+                }
+            }
+        }
+        return rejected;
+    }
+
+    public boolean isOn(int state) {
+        return (this.onStates >>> Objects.checkIndex(state, this.states.length) & 1) != 0;
+    }
+
+    public int countOn(byte[] states) {
+        int on = 0;
+        for (byte state : states) {
+            on += (int) (this.onStates >>> state & 1);
+        }
+        return on;
+    }
+
+    public int initialState() {
+        return this.initialState;
+    }
+
+    public int states() {
+        return this.states.length;
+    }
+
+    public int events() {
+        return this.events.length;
+    }
+
+    public String stateName(int state) {
+        return this.states[state];
+    }
+
+    public String eventName(int event) {
+        return this.events[event];
+    }
+
+    public int state(String name) {
+        return indexOf(this.states, name, "state");
+    }
+
+    public int event(String name) {
+        return indexOf(this.events, name, "event");
+    }
+
+    private static int indexOf(String[] names, String name, String kind) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("unknown " + kind + ": " + name);
+    }
+
+    @Override
+    public String toString() {
+        return "StateMachine{" +
+                "states=" + Arrays.toString(this.states) +
+                ", events=" + Arrays.toString(this.events) +
+                '}';
+    }
+
+    // the first state declared is the initial one unless initial() says otherwise
+    public static final class Builder {
+        private final List<String> states = new ArrayList<>();
+        private final List<String> events = new ArrayList<>();
+        private final List<int[]> transitions = new ArrayList<>();
+        private final List<int[]> guarded = new ArrayList<>();
+        private final List<Guard> guards = new ArrayList<>();
+        private long onStates = 0;
+        private int initialState = 0;
+
+        private Builder() {
+        }
+
+        public Builder state(String name, boolean on) {
+            if (this.states.contains(name)) {
+                throw new IllegalArgumentException("duplicate state: " + name);
+            }
+            if (this.states.size() == Long.SIZE) {
+                throw new IllegalArgumentException("more than " + Long.SIZE + " states");
+            }
+            if (on) {
+                this.onStates |= 1L << this.states.size();
+            }
+            this.states.add(Objects.requireNonNull(name));
+            return this;
+        }
+
+        public Builder event(String name) {
+            if (this.events.contains(name)) {
+                throw new IllegalArgumentException("duplicate event: " + name);
+            }
+            if (this.events.size() == 256) {
+                throw new IllegalArgumentException("more than 256 events");
+            }
+            this.events.add(Objects.requireNonNull(name));
+            return this;
+        }
+
+        public Builder transition(String from, String event, String to) {
+            int[] transition = {this.stateIndex(from), this.eventIndex(event), this.stateIndex(to)};
+            for (int[] other : this.transitions) {
+                if (other[0] == transition[0] && other[1] == transition[1]) {
+                    throw new IllegalArgumentException("duplicate transition: " + from + " on " + event);
+                }
+            }
+            this.transitions.add(transition);
+            return this;
+        }
+
+        public Builder guard(String from, String event, Guard guard) {
+            this.guarded.add(new int[]{this.stateIndex(from), this.eventIndex(event)});
+            this.guards.add(Objects.requireNonNull(guard));
+            return this;
+        }
+
+        public Builder initial(String state) {
+            this.initialState = this.stateIndex(state);
+            return this;
+        }
+
+        public StateMachine build() {
+            if (this.states.isEmpty() || this.events.isEmpty()) {
+                throw new IllegalStateException("a state machine needs at least one state and one event");
+            }
+            return new StateMachine(this);
+        }
+
+        private int stateIndex(String name) {
+            int index = this.states.indexOf(name);
+            if (index < 0) {
+                throw new IllegalArgumentException("unknown state: " + name);
+            }
+            return index;
+        }
+
+        private int eventIndex(String name) {
+            int index = this.events.indexOf(name);
+            if (index < 0) {
+                throw new IllegalArgumentException("unknown event: " + name);
+            }
+            return index;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package tdd;
+
+import java.util.Objects;
+
+// a Device whose states and transitions come from a StateMachine with switchOn and switchOff events;
+// on the DeviceStates.onOff() preset it behaves like DeviceImpl. Any event that is not allowed in
+// the current state throws IllegalStateException and leaves the state unchanged
+public class StateMachineDevice implements Device {
+    private final StateMachine machine;
+    private final int id;
+    private final int switchOn;
+    private final int switchOff;
+    private int state;
+
+    public StateMachineDevice(StateMachine machine) {
+        this(machine, 0);
+    }
+
+    // id is the index the machine's guards see
+    public StateMachineDevice(StateMachine machine, int id) {
+        this.machine = Objects.requireNonNull(machine);
+        this.id = id;
+        this.switchOn = machine.event("switchOn");
+        this.switchOff = machine.event("switchOff");
+        this.state = machine.initialState();
+    }
+
+    @Override
+    public boolean isOn() {
+        return this.machine.isOn(this.state);
+    }
+
+    @Override
+    public void switchOn() {
+        this.fire(this.switchOn);
+    }
+
+    @Override
+    public void switchOff() {
+        this.fire(this.switchOff);
+    }
+
+    public void fire(int event) {
+        if (!this.tryFire(event)) {
+            throw new IllegalStateException(this.machine.eventName(event) + " is not allowed in state "
+                    + this.machine.stateName(this.state));
+        }
+    }
+
+    public boolean tryFire(int event) {
+        int next = this.machine.fire(this.state, event, this.id);
+        if (next == StateMachine.REJECTED) {
+            return false;
+        }
+        this.state = next;
+        return true;
+    }
+
+    public int state() {
+        return this.state;
+    }
+
+    public StateMachine machine() {
+        return this.machine;
+    }
+
+    @Override
+    public String toString() {
+        return "StateMachineDevice{" +
+                "state=" + this.machine.stateName(this.state) +
+                '}';
+    }
+}
@@ -2,6 +2,10 @@ package coverage;
 
 import org.junit.jupiter.api.Test;
 
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.SplittableRandom;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class AdderTest {
@@ -13,4 +17,102 @@ class AdderTest {
         assertEquals(-1, adder.add(-1, 20)); // test needed for full coverage
         assertEquals(-1, adder.add(20, -1)); // test needed for full coverage
     }
-}
\ No newline at end of file
+
+    @Test
+    void testOverflowSafeAddition() {
+        var adder = new Adder();
+        assertEquals(30, adder.addExact(10, 20));
+        assertEquals(-1, adder.addExact(-1, 20));
+        assertThrows(ArithmeticException.class, () -> adder.addExact(Integer.MAX_VALUE, 1));
+        assertEquals(30L, adder.addExact(10L, 20L));
+        assertThrows(ArithmeticException.class, () -> adder.addExact(Long.MAX_VALUE, 1L));
+        assertEquals(Integer.MAX_VALUE, adder.addSaturating(Integer.MAX_VALUE, 1));
+        assertEquals(-1, adder.addSaturating(0, 1));
+        assertEquals(Integer.MAX_VALUE + 1L, adder.addWide(Integer.MAX_VALUE, 1));
+        assertEquals(-1L, adder.addWide(1, Integer.MIN_VALUE));
+    }
+
+    private static final int[] EDGES = {Integer.MIN_VALUE, -2, -1, 0, 1, 2, Integer.MAX_VALUE - 1, Integer.MAX_VALUE};
+
+    // every pair of edge values, then random values, so that both the vector body and its tail are used
+    private static int[][] operands(int randomCount) {
+        SplittableRandom random = new SplittableRandom(42);
+        int length = EDGES.length * EDGES.length + randomCount;
+        int[] a = new int[length];
+        int[] b = new int[length];
+        for (int i = 0; i < EDGES.length * EDGES.length; i++) {
+            a[i] = EDGES[i / EDGES.length];
+            b[i] = EDGES[i % EDGES.length];
+        }
+        for (int i = EDGES.length * EDGES.length; i < length; i++) {
+            a[i] = random.nextInt();
+            b[i] = random.nextInt();
+        }
+        return new int[][]{a, b};
+    }
+
+    private static int[] expected(int[] a, int[] b) {
+        var adder = new Adder();
+        int[] expected = new int[a.length];
+        for (int i = 0; i < a.length; i++) {
+            expected[i] = adder.add(a[i], b[i]);
+        }
+        return expected;
+    }
+
+    @Test
+    void testBulkAdditionMatchesScalar() {
+        var adder = new Adder();
+        int[][] operands = operands(1_003);
+        int[] out = new int[operands[0].length];
+        int[] scalarOut = new int[operands[0].length];
+        adder.add(operands[0], operands[1], out);
+        Adder.addScalar(operands[0], 0, operands[1], 0, scalarOut, 0, scalarOut.length);
+        assertArrayEquals(expected(operands[0], operands[1]), out);
+        assertArrayEquals(expected(operands[0], operands[1]), scalarOut);
+    }
+
+    @Test
+    void testBulkAdditionOverflowWraps() {
+        var adder = new Adder();
+        int[] out = new int[2];
+        adder.add(new int[]{Integer.MAX_VALUE, Integer.MAX_VALUE}, new int[]{1, -1}, out);
+        assertArrayEquals(new int[]{Integer.MIN_VALUE, -1}, out);
+    }
+
+    @Test
+    void testOffsetsAndStrides() {
+        var adder = new Adder();
+        int[] a = {5, 1, -3, 4, 7, 0, 2};
+        int[] b = {1, 1, 1, 1, 1, 1, 1};
+        int[] offsetOut = new int[7];
+        int[] stridedOut = new int[7];
+        adder.add(a, 2, b, 0, offsetOut, 1, 4);
+        adder.add(a, b, stridedOut, 1, 3, 2);
+        assertArrayEquals(new int[]{0, -1, 5, 8, -1, 0, 0}, offsetOut);
+        assertArrayEquals(new int[]{0, 2, 0, 0, 8, 0, 0}, stridedOut);
+        int[] hugeStrideOut = new int[7];
+        adder.add(a, b, hugeStrideOut, 4, Integer.MAX_VALUE, 1);
+        assertArrayEquals(new int[]{0, 0, 0, 0, 8, 0, 0}, hugeStrideOut);
+        assertThrows(IndexOutOfBoundsException.class, () -> adder.add(a, 4, b, 0, offsetOut, 0, 4));
+        assertThrows(IndexOutOfBoundsException.class, () -> adder.add(a, b, stridedOut, 1, 3, 3));
+        assertThrows(IllegalArgumentException.class, () -> adder.add(a, b, new int[6]));
+    }
+
+    @Test
+    void testBuffers() {
+        var adder = new Adder();
+        int[][] operands = operands(37);
+        int length = operands[0].length;
+        IntBuffer heapOut = IntBuffer.allocate(length);
+        IntBuffer directA = ByteBuffer.allocateDirect(length * Integer.BYTES).asIntBuffer().put(operands[0]).flip();
+        IntBuffer directOut = ByteBuffer.allocateDirect(length * Integer.BYTES).asIntBuffer();
+        adder.add(IntBuffer.wrap(operands[0]), IntBuffer.wrap(operands[1]), heapOut);
+        adder.add(directA, IntBuffer.wrap(operands[1]), directOut);
+        int[] direct = new int[length];
+        directOut.flip().get(direct);
+        assertArrayEquals(expected(operands[0], operands[1]), heapOut.array());
+        assertArrayEquals(expected(operands[0], operands[1]), direct);
+        assertEquals(0, directA.remaining());
+    }
+}
@@ -0,0 +1,32 @@
+package coverage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PositiveAccumulatorTest {
+
+    @Test
+    void testOnlyPositiveValuesAreAdded() {
+        var accumulator = new PositiveAccumulator();
+        assertTrue(accumulator.accumulate(10));
+        assertFalse(accumulator.accumulate(0));
+        assertFalse(accumulator.accumulate(-5));
+        assertTrue(accumulator.accumulate(Integer.MAX_VALUE));
+        assertEquals(10L + Integer.MAX_VALUE, accumulator.sum());
+        assertEquals(2, accumulator.rejected());
+        accumulator.reset();
+        assertEquals(0, accumulator.sum());
+        assertEquals(0, accumulator.rejected());
+    }
+
+    @Test
+    void testConcurrentAccumulation() {
+        var accumulator = new PositiveAccumulator();
+        IntStream.range(-100_000, 100_000).parallel().forEach(accumulator::accumulate);
+        assertEquals(100_000L * 99_999 / 2, accumulator.sum());
+        assertEquals(100_001, accumulator.rejected());
+    }
+}
@@ -0,0 +1,164 @@
+package devices;
+
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AsyncDeviceControllerTest {
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("A controller needs a positive concurrency and non negative retries")
+    void testInvalidArguments() {
+        assertAll(
+                () -> assertThrows(IllegalArgumentException.class, () -> new AsyncDeviceController(0, TIMEOUT, 1)),
+                () -> assertThrows(IllegalArgumentException.class, () -> new AsyncDeviceController(1, TIMEOUT, -1)),
+                () -> assertThrows(NullPointerException.class, () -> new AsyncDeviceController(1, null, 1))
+        );
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("A failing device is reset and retried until it switches on")
+    void testRetryWithReset() {
+        FailingPolicy policy = mock(FailingPolicy.class);
+        when(policy.attemptOn()).thenReturn(false, false, true);
+        Device device = new StandardDevice(policy);
+        try (AsyncDeviceController controller = new AsyncDeviceController(4, TIMEOUT, 2)) {
+            SwitchOnReport report = controller.switchOnAll(List.of(device));
+            assertAll(
+                    () -> assertTrue(report.allSucceeded()),
+                    () -> assertEquals(2, report.retries()),
+                    () -> assertTrue(device.isOn()),
+                    () -> verify(policy, times(2)).reset()
+            );
+        }
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("A device still failing after every retry is reported as failed")
+    void testRetriesExhausted() {
+        FailingPolicy alwaysFailing = mock(FailingPolicy.class);
+        FailingPolicy neverFailing = mock(FailingPolicy.class);
+        when(neverFailing.attemptOn()).thenReturn(true);
+        List<Device> devices = List.of(new StandardDevice(neverFailing), new StandardDevice(alwaysFailing));
+        try (AsyncDeviceController controller = new AsyncDeviceController(4, TIMEOUT, 2)) {
+            SwitchOnReport report = controller.switchOnAll(devices);
+            assertAll(
+                    () -> assertEquals(1, report.succeeded()),
+                    () -> assertEquals(1, report.failures()),
+                    () -> assertTrue(report.failed().get(1)),
+                    () -> assertEquals(2, report.retries()),
+                    () -> verify(alwaysFailing, times(3)).attemptOn()
+            );
+        }
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("A device that does not answer in time is reported as timed out")
+    void testTimeout() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        Device stuck = mock(Device.class);
+        when(stuck.tryOn()).thenAnswer(invocation -> {
+            release.await();
+            return true;
+        });
+        try (AsyncDeviceController controller = new AsyncDeviceController(4, Duration.ofMillis(50), 0)) {
+            SwitchOnReport report = controller.switchOnAll(List.of(stuck));
+            assertAll(
+                    () -> assertEquals(1, report.timeouts()),
+                    () -> assertTrue(report.timedOut().get(0)),
+                    () -> assertEquals(0, report.succeeded())
+            );
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("No more than maxConcurrency devices are switched on at the same time")
+    void testBoundedConcurrency() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        List<Device> devices = IntStream.range(0, 200).mapToObj(i -> {
+            Device device = mock(Device.class);
+            when(device.tryOn()).thenAnswer(invocation -> {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                Thread.sleep(1);
+                inFlight.decrementAndGet();
+                return true;
+            });
+            return device;
+        }).toList();
+        try (AsyncDeviceController controller = new AsyncDeviceController(8, TIMEOUT, 0)) {
+            SwitchOnReport report = controller.switchOnAll(devices);
+            assertAll(
+                    () -> assertTrue(report.allSucceeded()),
+                    () -> assertTrue(maxInFlight.get() <= 8, () -> "max in flight " + maxInFlight.get())
+            );
+        }
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("A timed out device that ignores interrupts keeps its permit until it returns")
+    void testTimeoutIgnoringInterrupts() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        List<Device> devices = IntStream.range(0, 20).mapToObj(i -> {
+            Device device = mock(Device.class);
+            when(device.tryOn()).thenAnswer(invocation -> {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                long deadline = System.nanoTime() + Duration.ofMillis(30).toNanos();
+                while (System.nanoTime() < deadline) {
+                    try {
+                        Thread.sleep(1);
+                    } catch (InterruptedException e) {
+                        // ignored on purpose
+                    }
+                }
+                inFlight.decrementAndGet();
+                return true;
+            });
+            return device;
+        }).toList();
+        try (AsyncDeviceController controller = new AsyncDeviceController(2, Duration.ofMillis(10), 0)) {
+            SwitchOnReport report = controller.switchOnAll(devices);
+            assertAll(
+                    () -> assertEquals(20, report.timeouts()),
+                    () -> assertTrue(maxInFlight.get() <= 2, () -> "max in flight " + maxInFlight.get())
+            );
+        }
+    }
+
+    @Test
+    @DisplayName("A hundred thousand devices are switched on and reset asynchronously")
+    void testManyDevices() {
+        List<StandardDevice> devices = IntStream.range(0, 100_000)
+                .mapToObj(i -> new StandardDevice(RandomFailing.forDevice(42, i)))
+                .toList();
+        try (AsyncDeviceController controller = new AsyncDeviceController(256, TIMEOUT, 30)) {
+            SwitchOnReport report = controller.switchOnAllAsync(devices).join();
+            long on = devices.stream().filter(Device::isOn).count();
+            controller.resetAll(devices);
+            assertAll(
+                    () -> assertEquals(100_000, report.devices()),
+                    () -> assertEquals(report.devices(), report.succeeded() + report.failures() + report.timeouts()),
+                    () -> assertEquals(report.succeeded(), on),
+                    () -> assertTrue(report.retries() > 0),
+                    () -> assertTrue(devices.stream().noneMatch(Device::isOn))
+            );
+        }
+    }
+}
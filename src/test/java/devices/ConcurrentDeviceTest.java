@@ -0,0 +1,120 @@
+package devices;
+
+import org.junit.jupiter.api.*;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.random.RandomGenerator;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ConcurrentDeviceTest {
+    private ConcurrentDevice device;
+    @Mock
+    RandomGenerator randomGenerator;
+
+    @BeforeEach
+    void init() {
+        MockitoAnnotations.openMocks(this);
+        this.device = new ConcurrentDevice(this.randomGenerator);
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("Device must specify a random generator")
+    void testNonNullRandom() {
+        assertThrows(NullPointerException.class, () -> new ConcurrentDevice(null));
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("Device is initially off")
+    void testInitiallyOff() {
+        assertAll(
+                () -> assertFalse(this.device.isOn()),
+                () -> assertFalse(this.device.isFailed()),
+                () -> assertEquals("ConcurrentDevice{policy=random, on=false}", this.device.toString())
+        );
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("Device switches on and off when not failing")
+    void testOnAndOff() {
+        when(this.randomGenerator.nextBoolean()).thenReturn(false);
+        this.device.on();
+        boolean firstIsOn = this.device.isOn();
+        this.device.off();
+        assertAll(
+                () -> assertTrue(firstIsOn),
+                () -> assertFalse(this.device.isOn())
+        );
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("A failure is sticky until reset")
+    void testFailureIsSticky() {
+        when(this.randomGenerator.nextBoolean()).thenReturn(true, false);
+        assertThrows(IllegalStateException.class, () -> this.device.on());
+        assertThrows(IllegalStateException.class, () -> this.device.on());
+        boolean failedBeforeReset = this.device.isFailed();
+        this.device.reset();
+        this.device.on();
+        assertAll(
+                () -> assertTrue(failedBeforeReset),
+                () -> assertTrue(this.device.isOn()),
+                () -> verify(this.randomGenerator, times(2)).nextBoolean()
+        );
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("tryOn reports a failure without throwing")
+    void testTryOn() {
+        when(this.randomGenerator.nextBoolean()).thenReturn(true);
+        assertAll(
+                () -> assertFalse(this.device.tryOn()),
+                () -> assertFalse(this.device.isOn()),
+                () -> assertTrue(this.device.isFailed())
+        );
+    }
+
+    @Test
+    @DisplayName("Concurrent switches on a never failing device never lose updates")
+    void testConcurrentSwitches() throws InterruptedException {
+        when(this.randomGenerator.nextBoolean()).thenReturn(false);
+        int threads = 8;
+        AtomicInteger failures = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < 1_000; i++) {
+                        this.device.on();
+                        this.device.off();
+                    }
+                } catch (IllegalStateException | InterruptedException e) {
+                    failures.incrementAndGet();
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        this.device.on();
+        assertAll(
+                () -> assertEquals(0, failures.get()),
+                () -> assertTrue(this.device.isOn()),
+                () -> assertFalse(this.device.isFailed())
+        );
+    }
+}
@@ -0,0 +1,226 @@
+package devices;
+
+import org.junit.jupiter.api.*;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeviceCodecTest {
+    private ByteBuffer buffer;
+
+    @BeforeEach
+    void init() {
+        this.buffer = ByteBuffer.allocate(4096);
+    }
+
+    private StandardDevice roundTrip(StandardDevice device) {
+        DeviceCodec.encode(device, this.buffer);
+        assertEquals(DeviceCodec.encodedSize(device), this.buffer.position());
+        this.buffer.flip();
+        return DeviceCodec.decode(this.buffer);
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("A device round-trips its on flag, policy and stackless failures")
+    void testDeviceRoundTrip() {
+        StandardDevice device = new StandardDevice(FailingPolicies.never(), true);
+        device.on();
+        StandardDevice decoded = roundTrip(device);
+        assertAll(
+                () -> assertTrue(decoded.isOn()),
+                () -> assertTrue(decoded.stacklessFailures()),
+                () -> assertEquals("never", decoded.failingPolicy().policyName()),
+                () -> assertFalse(this.buffer.hasRemaining())
+        );
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("A seeded random policy continues with the exact same stream after decoding")
+    void testRandomStateRoundTrip() {
+        RandomFailing policy = RandomFailing.seeded(42);
+        for (int i = 0; i < 5; i++) {
+            policy.attemptOn();
+            policy.reset();
+        }
+        StandardDevice decoded = roundTrip(new StandardDevice(policy));
+        RandomFailing restored = (RandomFailing) decoded.failingPolicy();
+        for (int i = 0; i < 100; i++) {
+            assertEquals(policy.attemptOn(), restored.attemptOn());
+            policy.reset();
+            restored.reset();
+        }
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("A skip-ahead policy keeps its probability and countdown")
+    void testSkipAheadRoundTrip() {
+        RandomFailing policy = new RandomFailing(new SplitMix64(9), 0.01, true);
+        policy.attemptOn();
+        StandardDevice decoded = roundTrip(new StandardDevice(policy));
+        RandomFailing restored = (RandomFailing) decoded.failingPolicy();
+        assertAll(
+                () -> assertEquals(0.01, restored.probability()),
+                () -> assertTrue(restored.isSkipAhead()),
+                () -> assertEquals(policy.untilFailure(), restored.untilFailure()),
+                () -> {
+                    for (int i = 0; i < 1000; i++) {
+                        assertEquals(policy.attemptOn(), restored.attemptOn());
+                        policy.reset();
+                        restored.reset();
+                    }
+                }
+        );
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("A failed random policy stays failed after decoding")
+    void testFailedFlagRoundTrip() {
+        RandomFailing policy = new RandomFailing();
+        policy.restoreFailed(true);
+        StandardDevice decoded = roundTrip(new StandardDevice(policy));
+        assertAll(
+                () -> assertTrue(((RandomFailing) decoded.failingPolicy()).isFailed()),
+                () -> assertThrows(IllegalStateException.class, decoded::on)
+        );
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("A default random policy round-trips with its exact generator state")
+    void testDefaultRandomRoundTrip() {
+        StandardDevice device = new StandardDevice(new RandomFailing());
+        StandardDevice decoded = roundTrip(device);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(device.tryOn(), decoded.tryOn());
+            device.reset();
+            decoded.reset();
+        }
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("A random policy whose generator cannot be captured is rejected")
+    void testUncapturedGenerator() {
+        StandardDevice device = new StandardDevice(RandomFailing.of("L64X128MixRandom", 42));
+        assertAll(
+                () -> assertThrows(IllegalArgumentException.class, () -> DeviceCodec.encodedSize(device)),
+                () -> assertThrows(IllegalArgumentException.class, () -> DeviceCodec.encode(device, ByteBuffer.allocate(64))),
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> DeviceCodec.encodedSize(new DeviceFleet(10, RandomFailing.perThread())))
+        );
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("A failAfter policy keeps counting from where it was")
+    void testFailAfterRoundTrip() {
+        FailingPolicies.FailAfter policy = FailingPolicies.failAfter(3);
+        policy.attemptOn();
+        policy.attemptOn();
+        StandardDevice decoded = roundTrip(new StandardDevice(policy));
+        assertAll(
+                () -> assertEquals("failAfter(3)", decoded.failingPolicy().policyName()),
+                () -> assertTrue(decoded.failingPolicy().attemptOn()),
+                () -> assertFalse(decoded.failingPolicy().attemptOn())
+        );
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("Policies without a binary form are rejected")
+    void testUnsupportedPolicy() {
+        StandardDevice device = new StandardDevice(FailingPolicies.timeWindow(10, 5));
+        assertThrows(IllegalArgumentException.class, () -> DeviceCodec.encode(device, this.buffer));
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("Unknown policy kinds are rejected")
+    void testUnknownKind() {
+        this.buffer.put((byte) 0).put((byte) 99).flip();
+        assertThrows(IllegalArgumentException.class, () -> DeviceCodec.decode(this.buffer));
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("Counts larger than the bytes left are rejected before anything is allocated")
+    void testCorruptCounts() {
+        ByteBuffer devices = ByteBuffer.allocate(16).putInt(Integer.MAX_VALUE).flip();
+        DeviceCodec.encode(new DeviceFleet(64, RandomFailing.seeded(1)), this.buffer);
+        this.buffer.flip();
+        this.buffer.putInt(0, Integer.MAX_VALUE);
+        assertAll(
+                () -> assertThrows(IllegalArgumentException.class, () -> DeviceCodec.decodeAll(devices)),
+                () -> assertThrows(IllegalArgumentException.class, () -> DeviceCodec.decodeFleet(this.buffer))
+        );
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("An array of devices round-trips in order")
+    void testDevicesRoundTrip() {
+        StandardDevice[] devices = {
+                new StandardDevice(FailingPolicies.always()),
+                new StandardDevice(RandomFailing.forDevice(7, 1)),
+                new StandardDevice(FailingPolicies.never())
+        };
+        devices[2].on();
+        DeviceCodec.encodeAll(devices, this.buffer);
+        this.buffer.flip();
+        StandardDevice[] decoded = DeviceCodec.decodeAll(this.buffer);
+        assertAll(
+                () -> assertEquals(3, decoded.length),
+                () -> assertEquals("always", decoded[0].failingPolicy().policyName()),
+                () -> assertEquals("random", decoded[1].failingPolicy().policyName()),
+                () -> assertTrue(decoded[2].isOn())
+        );
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("A fleet round-trips its bitmaps in either byte order")
+    void testFleetRoundTrip() {
+        DeviceFleet fleet = new DeviceFleet(300, RandomFailing.seeded(3));
+        fleet.on(0, 300);
+        fleet.off(100, 150);
+        for (ByteOrder order : new ByteOrder[]{ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN}) {
+            ByteBuffer direct = ByteBuffer.allocateDirect(DeviceCodec.encodedSize(fleet)).order(order);
+            DeviceCodec.encode(fleet, direct);
+            assertFalse(direct.hasRemaining());
+            direct.flip();
+            DeviceFleet decoded = DeviceCodec.decodeFleet(direct);
+            assertAll(
+                    () -> assertEquals(300, decoded.size()),
+                    () -> assertEquals(fleet.countOn(), decoded.countOn()),
+                    () -> assertEquals(0, decoded.countOn(100, 150)),
+                    () -> {
+                        for (int i = 0; i < 300; i++) {
+                            assertEquals(fleet.isFailed(i), decoded.isFailed(i));
+                        }
+                    }
+            );
+        }
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("A decoded fleet draws the same failures as the original")
+    void testFleetPolicyRoundTrip() {
+        DeviceFleet fleet = new DeviceFleet(1000, RandomFailing.seeded(5));
+        fleet.on(0, 500);
+        fleet.reset(0, 1000);
+        DeviceCodec.encode(fleet, this.buffer);
+        this.buffer.flip();
+        DeviceFleet decoded = DeviceCodec.decodeFleet(this.buffer);
+        assertAll(
+                () -> assertEquals(fleet.on(0, 1000), decoded.on(0, 1000)),
+                () -> assertEquals(fleet.countOn(), decoded.countOn())
+        );
+    }
+}
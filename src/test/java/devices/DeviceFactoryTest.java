@@ -0,0 +1,90 @@
+package devices;
+
+import org.junit.jupiter.api.*;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeviceFactoryTest {
+    private static boolean[] attempts(StandardDevice device) {
+        boolean[] attempts = new boolean[64];
+        for (int i = 0; i < attempts.length; i++) {
+            attempts[i] = device.tryOn();
+            device.reset();
+        }
+        return attempts;
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("A shared policy is the same instance in every device")
+    void testShared() {
+        FailingPolicy policy = FailingPolicies.never();
+        StandardDevice[] devices = DeviceFactory.shared(policy).createAll(100);
+        assertAll(
+                () -> assertSame(policy, devices[0].failingPolicy()),
+                () -> assertSame(policy, devices[99].failingPolicy()),
+                () -> assertTrue(devices[42].tryOn())
+        );
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("Seeded devices decide like RandomFailing.forDevice with the same id")
+    void testSeeded() {
+        StandardDevice[] devices = new StandardDevice[10];
+        DeviceFactory.seeded(42).fill(devices, 1000);
+        assertAll(
+                () -> assertArrayEquals(attempts(new StandardDevice(RandomFailing.forDevice(42, 1003))), attempts(devices[3])),
+                () -> assertNotSame(devices[0].failingPolicy(), devices[1].failingPolicy())
+        );
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("A lazily seeded generator gives the same stream as an eagerly seeded one")
+    void testLazySeed() {
+        SplitMix64 lazy = SplitMix64.lazy(7);
+        SplitMix64 eager = new SplitMix64(SplitMix64.mix64(7));
+        assertAll(
+                () -> assertEquals(eager.state(), SplitMix64.lazy(7).state()),
+                () -> assertEquals(eager.nextLong(), lazy.nextLong()),
+                () -> assertEquals(eager.nextLong(), lazy.nextLong())
+        );
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("A device never attempted survives an encode and decode round trip")
+    void testUnusedRoundTrip() {
+        StandardDevice device = DeviceFactory.seeded(5).create(3);
+        ByteBuffer buffer = ByteBuffer.allocate(DeviceCodec.encodedSize(device));
+        DeviceCodec.encode(device, buffer);
+        StandardDevice decoded = DeviceCodec.decode(buffer.flip());
+        assertArrayEquals(attempts(device), attempts(decoded));
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("parallelFill() builds the same devices as fill()")
+    void testParallelFill() {
+        StandardDevice[] sequential = new StandardDevice[10_000];
+        StandardDevice[] parallel = new StandardDevice[10_000];
+        DeviceFactory factory = DeviceFactory.seeded(9).stacklessFailures();
+        factory.fill(sequential, 0);
+        factory.parallelFill(parallel, 0);
+        for (int i = 0; i < sequential.length; i += 997) {
+            assertArrayEquals(attempts(sequential[i]), attempts(parallel[i]), "device " + i);
+        }
+        assertTrue(parallel[9_999].stacklessFailures());
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("fill() checks its range")
+    void testFillRange() {
+        assertThrows(IndexOutOfBoundsException.class,
+                () -> DeviceFactory.shared(FailingPolicies.always()).fill(new StandardDevice[4], 2, 5, 0));
+    }
+}
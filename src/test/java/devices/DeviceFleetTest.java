@@ -0,0 +1,163 @@
+package devices;
+
+import org.junit.jupiter.api.*;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.random.RandomGenerator;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class DeviceFleetTest {
+    private static final int SIZE = 200;
+    private DeviceFleet fleet;
+    @Mock
+    RandomGenerator randomGenerator;
+
+    @BeforeEach
+    void init() {
+        MockitoAnnotations.openMocks(this);
+        this.fleet = new DeviceFleet(SIZE, this.randomGenerator);
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("Every device of a fleet is initially off")
+    void testInitiallyOff() {
+        assertAll(
+                () -> assertEquals(0, this.fleet.countOn()),
+                () -> assertFalse(this.fleet.device(0).isOn()),
+                () -> assertFalse(this.fleet.device(SIZE - 1).isOn())
+        );
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("A fleet cannot have a negative size")
+    void testNegativeSize() {
+        assertThrows(IllegalArgumentException.class, () -> new DeviceFleet(-1, this.randomGenerator));
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("Ranges and indexes outside the fleet are rejected")
+    void testOutOfBounds() {
+        assertAll(
+                () -> assertThrows(IndexOutOfBoundsException.class, () -> this.fleet.device(SIZE)),
+                () -> assertThrows(IndexOutOfBoundsException.class, () -> this.fleet.on(10, SIZE + 1)),
+                () -> assertThrows(IndexOutOfBoundsException.class, () -> this.fleet.off(20, 10))
+        );
+    }
+
+    @Nested
+    class NeverFailing {
+        @BeforeEach
+        void init() {
+            when(DeviceFleetTest.this.randomGenerator.nextLong()).thenReturn(0L);
+        }
+
+        @Test
+        @Tag("UnitTest")
+        @DisplayName("Switching on a range crossing word boundaries only affects that range")
+        void testOnRange() {
+            int failures = DeviceFleetTest.this.fleet.on(3, 131);
+            assertAll(
+                    () -> assertEquals(0, failures),
+                    () -> assertEquals(128, DeviceFleetTest.this.fleet.countOn()),
+                    () -> assertFalse(DeviceFleetTest.this.fleet.isOn(2)),
+                    () -> assertTrue(DeviceFleetTest.this.fleet.isOn(3)),
+                    () -> assertTrue(DeviceFleetTest.this.fleet.isOn(130)),
+                    () -> assertFalse(DeviceFleetTest.this.fleet.isOn(131))
+            );
+        }
+
+        @Test
+        @Tag("UnitTest")
+        @DisplayName("Switching off a range leaves the rest of the fleet on")
+        void testOffRange() {
+            DeviceFleetTest.this.fleet.on(0, SIZE);
+            DeviceFleetTest.this.fleet.off(64, 128);
+            assertAll(
+                    () -> assertEquals(SIZE - 64, DeviceFleetTest.this.fleet.countOn()),
+                    () -> assertEquals(0, DeviceFleetTest.this.fleet.countOn(64, 128)),
+                    () -> assertTrue(DeviceFleetTest.this.fleet.isOn(63)),
+                    () -> assertTrue(DeviceFleetTest.this.fleet.isOn(128))
+            );
+        }
+
+        @Test
+        @Tag("UnitTest")
+        @DisplayName("A device view reflects and drives the fleet state")
+        void testDeviceView() {
+            Device device = DeviceFleetTest.this.fleet.device(70);
+            device.on();
+            boolean viewOn = device.isOn();
+            boolean fleetOn = DeviceFleetTest.this.fleet.isOn(70);
+            device.off();
+            assertAll(
+                    () -> assertTrue(viewOn),
+                    () -> assertTrue(fleetOn),
+                    () -> assertFalse(DeviceFleetTest.this.fleet.isOn(70)),
+                    () -> assertEquals(0, DeviceFleetTest.this.fleet.countOn())
+            );
+        }
+
+        @Test
+        @Tag("UnitTest")
+        @DisplayName("Empty ranges are a no-op")
+        void testEmptyRange() {
+            assertAll(
+                    () -> assertEquals(0, DeviceFleetTest.this.fleet.on(64, 64)),
+                    () -> assertEquals(0, DeviceFleetTest.this.fleet.countOn(0, 0)),
+                    () -> verifyNoInteractions(DeviceFleetTest.this.randomGenerator)
+            );
+        }
+    }
+
+    @Nested
+    class AlwaysFailing {
+        @BeforeEach
+        void init() {
+            when(DeviceFleetTest.this.randomGenerator.nextLong()).thenReturn(-1L);
+        }
+
+        @Test
+        @Tag("UnitTest")
+        @DisplayName("Failing devices do not switch on and are reported")
+        void testOnRangeFails() {
+            int failures = DeviceFleetTest.this.fleet.on(0, 10);
+            assertAll(
+                    () -> assertEquals(10, failures),
+                    () -> assertEquals(0, DeviceFleetTest.this.fleet.countOn()),
+                    () -> assertTrue(DeviceFleetTest.this.fleet.isFailed(9)),
+                    () -> assertFalse(DeviceFleetTest.this.fleet.isFailed(10))
+            );
+        }
+
+        @Test
+        @Tag("UnitTest")
+        @DisplayName("A failing device view throws like a StandardDevice")
+        void testDeviceViewThrows() {
+            Device device = DeviceFleetTest.this.fleet.device(5);
+            assertAll(
+                    () -> assertThrows(IllegalStateException.class, device::on),
+                    () -> assertFalse(device.isOn())
+            );
+        }
+
+        @Test
+        @Tag("UnitTest")
+        @DisplayName("Failures are sticky until reset and do not consume randomness")
+        void testStickyFailures() {
+            DeviceFleetTest.this.fleet.on(0, 10);
+            DeviceFleetTest.this.fleet.on(0, 10);
+            verify(DeviceFleetTest.this.randomGenerator, times(1)).nextLong();
+            DeviceFleetTest.this.fleet.reset(0, 5);
+            assertAll(
+                    () -> assertFalse(DeviceFleetTest.this.fleet.isFailed(4)),
+                    () -> assertTrue(DeviceFleetTest.this.fleet.isFailed(5))
+            );
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package devices;
+
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeviceGroupTest {
+    private DeviceGroup room;
+    private DeviceGroup rack;
+    private Device first;
+    private Device second;
+    private Device failing;
+
+    @BeforeEach
+    void init() {
+        this.room = new DeviceGroup("room");
+        this.rack = this.room.addGroup("rack");
+        this.first = this.rack.add(new StandardDevice(FailingPolicies.never()));
+        this.second = this.rack.add(new StandardDevice(FailingPolicies.never()));
+        this.failing = this.room.add(new StandardDevice(FailingPolicies.always()));
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("A new group counts every device below it and none is on")
+    void testInitialState() {
+        assertAll(
+                () -> assertEquals(3, this.room.size()),
+                () -> assertEquals(2, this.rack.size()),
+                () -> assertFalse(this.room.anyOn()),
+                () -> assertFalse(this.room.isOn()),
+                () -> assertFalse(new DeviceGroup("empty").isOn()),
+                () -> assertSame(this.room, this.rack.parent())
+        );
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("Switching on a member updates every ancestor")
+    void testMemberPropagation() {
+        this.first.on();
+        assertAll(
+                () -> assertEquals(1, this.rack.countOn()),
+                () -> assertEquals(1, this.room.countOn()),
+                () -> assertTrue(this.room.anyOn()),
+                () -> assertFalse(this.rack.isOn())
+        );
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("on() fans out to every device, then reports the failures")
+    void testGroupOn() {
+        IllegalStateException failure = assertThrows(IllegalStateException.class, this.room::on);
+        assertAll(
+                () -> assertTrue(failure.getMessage().startsWith("1 devices")),
+                () -> assertEquals(2, this.room.countOn()),
+                () -> assertEquals(1, this.room.countFailed()),
+                () -> assertEquals(0, this.rack.countFailed()),
+                () -> assertTrue(this.rack.isOn()),
+                () -> assertFalse(this.room.isOn())
+        );
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("A subgroup switches on without the failures of its siblings")
+    void testSubgroupOn() {
+        assertAll(
+                () -> assertTrue(this.rack.tryOn()),
+                () -> assertTrue(this.first.isOn()),
+                () -> assertFalse(this.failing.isOn())
+        );
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("off() keeps failures, reset() clears them")
+    void testOffAndReset() {
+        this.room.tryOn();
+        this.room.off();
+        long failedAfterOff = this.room.countFailed();
+        long onAfterOff = this.room.countOn();
+        this.room.reset();
+        assertAll(
+                () -> assertEquals(1, failedAfterOff),
+                () -> assertEquals(0, onAfterOff),
+                () -> assertEquals(0, this.room.countFailed())
+        );
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("A device already on is counted when added")
+    void testAddOnDevice() {
+        StandardDevice device = new StandardDevice(FailingPolicies.never());
+        device.on();
+        this.rack.add(device);
+        assertEquals(1, this.room.countOn());
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("Concurrent transitions of many members keep the counters exact")
+    void testConcurrentMembers() throws InterruptedException {
+        DeviceGroup building = new DeviceGroup("building");
+        List<Device> members = new ArrayList<>();
+        for (int r = 0; r < 4; r++) {
+            DeviceGroup rack = building.addGroup("rack" + r);
+            for (int d = 0; d < 250; d++) {
+                members.add(rack.add(new StandardDevice(FailingPolicies.never())));
+            }
+        }
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            for (int t = 0; t < 4; t++) {
+                int offset = t;
+                executor.execute(() -> {
+                    for (int round = 0; round < 100; round++) {
+                        for (int i = offset; i < members.size(); i += 2) {
+                            Device member = members.get(i);
+                            member.on();
+                            member.off();
+                            member.on();
+                        }
+                    }
+                });
+            }
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        }
+        assertAll(
+                () -> assertEquals(1000, building.size()),
+                () -> assertEquals(1000, building.countOn()),
+                () -> assertTrue(building.isOn())
+        );
+    }
+}
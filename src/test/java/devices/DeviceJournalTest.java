@@ -0,0 +1,112 @@
+package devices;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.random.RandomGenerator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class DeviceJournalTest {
+    private static final int RECORDS_PER_SEGMENT = 4;
+    @TempDir
+    Path directory;
+    @Mock
+    RandomGenerator randomGenerator;
+
+    @BeforeEach
+    void init() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    private List<String> replayed() throws IOException {
+        List<String> records = new ArrayList<>();
+        DeviceJournal.replay(this.directory, (deviceId, transition, timestampMillis) -> records.add(deviceId + ":" + transition));
+        return records;
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("A journal needs a positive segment size")
+    void testInvalidSegmentSize() {
+        assertThrows(IllegalArgumentException.class, () -> DeviceJournal.open(this.directory, 0));
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("Transitions are replayed in order across segments")
+    void testReplayAcrossSegments() throws IOException {
+        try (DeviceJournal journal = DeviceJournal.open(this.directory, RECORDS_PER_SEGMENT)) {
+            for (long id = 0; id < 5; id++) {
+                journal.append(id, DeviceTransition.ON);
+            }
+            journal.append(2, DeviceTransition.FAILURE);
+            journal.append(3, DeviceTransition.RESET);
+        }
+        try (Stream<Path> files = Files.list(this.directory)) {
+            assertEquals(2, files.count());
+        }
+        assertEquals(List.of("0:ON", "1:ON", "2:ON", "3:ON", "4:ON", "2:FAILURE", "3:RESET"), replayed());
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("A reopened journal appends after its last record")
+    void testReopen() throws IOException {
+        try (DeviceJournal journal = DeviceJournal.open(this.directory, RECORDS_PER_SEGMENT)) {
+            journal.append(1, DeviceTransition.ON);
+        }
+        try (DeviceJournal journal = DeviceJournal.open(this.directory, RECORDS_PER_SEGMENT)) {
+            journal.append(1, DeviceTransition.OFF);
+        }
+        assertEquals(List.of("1:ON", "1:OFF"), replayed());
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("Journaled devices record their transitions and can be restored")
+    void testJournaledDevicesRestore() throws IOException {
+        when(this.randomGenerator.nextBoolean()).thenReturn(false, false, true);
+        try (DeviceJournal journal = DeviceJournal.open(this.directory, RECORDS_PER_SEGMENT)) {
+            Device first = new JournaledDevice(0, new StandardDevice(new RandomFailing(this.randomGenerator)), journal);
+            Device second = new JournaledDevice(1, new StandardDevice(new RandomFailing(this.randomGenerator)), journal);
+            Device third = new JournaledDevice(2, new StandardDevice(new RandomFailing(this.randomGenerator)), journal);
+            first.on();
+            second.on();
+            second.off();
+            assertThrows(IllegalStateException.class, third::on);
+        }
+        StandardDevice[] restored = {
+                new StandardDevice(new RandomFailing()),
+                new StandardDevice(new RandomFailing()),
+                new StandardDevice(new RandomFailing())
+        };
+        DeviceJournal.restore(this.directory, restored);
+        assertAll(
+                () -> assertEquals(List.of("0:ON", "1:ON", "1:OFF", "2:FAILURE"), replayed()),
+                () -> assertTrue(restored[0].isOn()),
+                () -> assertFalse(restored[1].isOn()),
+                () -> assertFalse(restored[2].isOn()),
+                () -> assertTrue(((RandomFailing) restored[2].failingPolicy()).isFailed()),
+                () -> assertFalse(restored[2].tryOn())
+        );
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("Replaying a missing journal visits nothing")
+    void testReplayMissingDirectory() throws IOException {
+        List<Long> visited = new ArrayList<>();
+        DeviceJournal.replay(this.directory.resolve("missing"), (deviceId, transition, timestampMillis) -> visited.add(deviceId));
+        assertTrue(visited.isEmpty());
+    }
+}
@@ -0,0 +1,188 @@
+package devices;
+
+import org.junit.jupiter.api.*;
+
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeviceRegistryTest {
+    private DeviceRegistry registry;
+
+    @BeforeEach
+    void init() {
+        this.registry = new DeviceRegistry();
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("Registered devices are found by id")
+    void testLookup() {
+        Device device = this.registry.register(42, new StandardDevice(FailingPolicies.never()));
+        assertAll(
+                () -> assertSame(device, this.registry.get(42)),
+                () -> assertNull(this.registry.get(43)),
+                () -> assertTrue(this.registry.contains(42)),
+                () -> assertEquals(1, this.registry.size())
+        );
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("An id cannot be registered twice")
+    void testDuplicateId() {
+        this.registry.register(1, new StandardDevice(FailingPolicies.never()));
+        assertThrows(IllegalArgumentException.class,
+                () -> this.registry.register(1, new StandardDevice(FailingPolicies.never())));
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("Counters follow on, off and reset per policy")
+    void testCounters() {
+        Device never = this.registry.register(1, new StandardDevice(FailingPolicies.never()));
+        Device other = this.registry.register(2, new StandardDevice(FailingPolicies.never()));
+        Device always = this.registry.register(3, new StandardDevice(FailingPolicies.always()));
+        never.on();
+        never.on();
+        other.on();
+        assertThrows(IllegalStateException.class, always::on);
+        other.reset();
+        assertAll(
+                () -> assertEquals(1, this.registry.countOn()),
+                () -> assertEquals(1, this.registry.countOn("never")),
+                () -> assertEquals(2, this.registry.count("never")),
+                () -> assertEquals(0, this.registry.countOn("always")),
+                () -> assertEquals(0, this.registry.count("random")),
+                () -> assertEquals(Set.of("never", "always"), this.registry.policyNames())
+        );
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("On devices and devices of a policy are listed by id")
+    void testIndexes() {
+        Device never = this.registry.register(1, new StandardDevice(FailingPolicies.never()));
+        this.registry.register(2, new StandardDevice(FailingPolicies.never()));
+        Device always = this.registry.register(3, new StandardDevice(FailingPolicies.always()));
+        never.on();
+        always.tryOn();
+        this.registry.remove(2);
+        assertAll(
+                () -> assertArrayEquals(new long[]{1, 3}, this.registry.ids().sorted().toArray()),
+                () -> assertArrayEquals(new long[]{1}, this.registry.idsOn().toArray()),
+                () -> assertArrayEquals(new long[]{1}, this.registry.ids("never").toArray()),
+                () -> assertArrayEquals(new long[]{3}, this.registry.ids("always").toArray()),
+                () -> assertArrayEquals(new long[]{1}, this.registry.idsOn("never").toArray()),
+                () -> assertEquals(0, this.registry.idsOn("always").count()),
+                () -> assertEquals(0, this.registry.ids("random").count())
+        );
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("A device already on is counted when registered and uncounted when removed")
+    void testRegisterAndRemoveOnDevice() {
+        StandardDevice device = new StandardDevice(FailingPolicies.never());
+        device.on();
+        Device registered = this.registry.register(7, device);
+        long onAfterRegister = this.registry.countOn();
+        assertTrue(this.registry.remove(7));
+        registered.off();
+        assertAll(
+                () -> assertEquals(1, onAfterRegister),
+                () -> assertEquals(0, this.registry.countOn("never")),
+                () -> assertEquals(0, this.registry.size()),
+                () -> assertFalse(this.registry.remove(7)),
+                () -> assertNull(this.registry.get(7))
+        );
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("Removing devices keeps every other id reachable")
+    void testManyRemovals() {
+        for (long id = 0; id < 2000; id++) {
+            this.registry.register(id * 31, new StandardDevice(FailingPolicies.never()));
+        }
+        for (long id = 0; id < 2000; id += 2) {
+            assertTrue(this.registry.remove(id * 31));
+        }
+        for (long id = 0; id < 2000; id++) {
+            assertEquals(id % 2 == 1, this.registry.contains(id * 31));
+        }
+        long[] odd = LongStream.range(0, 1000).map(i -> (2 * i + 1) * 31).toArray();
+        assertAll(
+                () -> assertEquals(1000, this.registry.size()),
+                () -> assertArrayEquals(odd, this.registry.ids("never").sorted().toArray())
+        );
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("Concurrent registrations and switch ons keep the counters exact")
+    void testConcurrentUpdates() throws InterruptedException {
+        int threads = 4;
+        int perThread = 5000;
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int t = 0; t < threads; t++) {
+                long base = (long) t * perThread;
+                executor.execute(() -> {
+                    for (long id = base; id < base + perThread; id++) {
+                        this.registry.register(id, new StandardDevice(FailingPolicies.never())).on();
+                        this.registry.get(id).off();
+                        this.registry.get(id).on();
+                    }
+                });
+            }
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        }
+        assertAll(
+                () -> assertEquals(threads * perThread, this.registry.size()),
+                () -> assertEquals(threads * perThread, this.registry.countOn("never")),
+                () -> assertArrayEquals(LongStream.range(0, threads * perThread).toArray(), this.registry.idsOn().sorted().toArray())
+        );
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("A device removed while it is being registered leaves no counts behind")
+    void testRemoveDuringRegister() throws InterruptedException {
+        int devices = 20_000;
+        Device[] handles = new Device[devices];
+        try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            executor.execute(() -> {
+                for (int id = 0; id < devices; id++) {
+                    StandardDevice device = new StandardDevice(FailingPolicies.never());
+                    device.on();
+                    handles[id] = this.registry.register(id, device);
+                }
+            });
+            executor.execute(() -> {
+                for (int id = 0; id < devices; id++) {
+                    while (!this.registry.remove(id)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        }
+        for (Device handle : handles) {
+            handle.off();
+            handle.on();
+        }
+        assertAll(
+                () -> assertEquals(0, this.registry.size()),
+                () -> assertEquals(0, this.registry.countOn()),
+                () -> assertEquals(0, this.registry.count("never")),
+                () -> assertEquals(0, this.registry.idsOn().count()),
+                () -> assertEquals(0, this.registry.ids().count())
+        );
+    }
+}
@@ -0,0 +1,227 @@
+package devices;
+
+import org.junit.jupiter.api.*;
+import tdd.DeviceImpl;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeviceStatePublisherTest {
+    private static final Duration NEVER = Duration.ofHours(1);
+    private DeviceStatePublisher publisher;
+    private Collector collector;
+
+    // records every batch; requests nothing by itself
+    private static final class Collector implements Flow.Subscriber<List<DeviceStateChange>> {
+        private final List<List<DeviceStateChange>> batches = new CopyOnWriteArrayList<>();
+        private final List<Throwable> errors = new CopyOnWriteArrayList<>();
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private Flow.Subscription subscription;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(List<DeviceStateChange> batch) {
+            this.batches.add(batch);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            this.errors.add(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            this.completed.countDown();
+        }
+    }
+
+    @BeforeEach
+    void init() {
+        this.publisher = new DeviceStatePublisher(NEVER, 2);
+        this.collector = new Collector();
+        this.publisher.subscribe(this.collector);
+    }
+
+    @AfterEach
+    void close() {
+        this.publisher.close();
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("Only the latest state of each device in a window is delivered")
+    void testCoalescing() {
+        Device device = this.publisher.track(1, new StandardDevice(FailingPolicies.never()));
+        this.collector.subscription.request(1);
+        device.on();
+        device.off();
+        device.on();
+        this.publisher.flush();
+        assertEquals(List.of(List.of(new DeviceStateChange(1, true))), this.collector.batches);
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("Nothing is delivered without demand, and pending changes keep conflating")
+    void testNoDemand() {
+        Device device = this.publisher.track(1, new StandardDevice(FailingPolicies.never()));
+        device.on();
+        this.publisher.flush();
+        boolean deliveredWithoutDemand = !this.collector.batches.isEmpty();
+        device.off();
+        this.collector.subscription.request(1);
+        this.publisher.flush();
+        this.publisher.flush();
+        assertAll(
+                () -> assertFalse(deliveredWithoutDemand),
+                () -> assertEquals(List.of(List.of(new DeviceStateChange(1, false))), this.collector.batches)
+        );
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("Changes of devices beyond the capacity are dropped and counted")
+    void testCapacity() {
+        for (long id = 0; id < 5; id++) {
+            this.publisher.publish(id, true);
+        }
+        this.publisher.publish(1, false);
+        this.collector.subscription.request(1);
+        this.publisher.flush();
+        assertAll(
+                () -> assertEquals(3, this.publisher.dropped()),
+                () -> assertEquals(List.of(List.of(new DeviceStateChange(0, true), new DeviceStateChange(1, false))),
+                        this.collector.batches)
+        );
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("tdd devices are tracked too, failed switch ons publish nothing")
+    void testTddDevice() {
+        tdd.Device device = this.publisher.track(7, new DeviceImpl());
+        this.collector.subscription.request(2);
+        device.switchOn();
+        this.publisher.flush();
+        assertThrows(IllegalStateException.class, device::switchOn);
+        this.publisher.flush();
+        assertEquals(List.of(List.of(new DeviceStateChange(7, true))), this.collector.batches);
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("A cancelled subscriber receives nothing more")
+    void testCancel() {
+        this.collector.subscription.request(Long.MAX_VALUE);
+        this.collector.subscription.cancel();
+        this.publisher.publish(1, true);
+        this.publisher.flush();
+        assertTrue(this.collector.batches.isEmpty());
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("Batches are delivered every window and close completes the subscribers")
+    void testWindowAndClose() throws InterruptedException {
+        DeviceStatePublisher windowed = new DeviceStatePublisher(Duration.ofMillis(10), 16);
+        Collector subscriber = new Collector();
+        windowed.subscribe(subscriber);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        windowed.publish(3, true);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (subscriber.batches.isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        windowed.close();
+        assertAll(
+                () -> assertEquals(List.of(List.of(new DeviceStateChange(3, true))), subscriber.batches),
+                () -> assertTrue(subscriber.completed.await(1, TimeUnit.SECONDS))
+        );
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("Subscribers racing with close are completed, including those subscribing after it")
+    void testSubscribeDuringClose() throws InterruptedException {
+        DeviceStatePublisher racing = new DeviceStatePublisher(NEVER, 16);
+        List<Collector> subscribers = new CopyOnWriteArrayList<>();
+        CountDownLatch started = new CountDownLatch(1);
+        Thread subscribing = new Thread(() -> {
+            for (int i = 0; i < 10_000; i++) {
+                Collector subscriber = new Collector();
+                subscribers.add(subscriber);
+                racing.subscribe(subscriber);
+                started.countDown();
+            }
+        });
+        subscribing.start();
+        started.await();
+        racing.close();
+        subscribing.join();
+        assertTrue(subscribers.stream().allMatch(subscriber -> subscriber.completed.getCount() == 0));
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("An invalid request is signalled by the next flush, and nothing follows it")
+    void testInvalidRequest() {
+        this.collector.subscription.request(1);
+        this.publisher.publish(1, true);
+        this.collector.subscription.request(0);
+        boolean signalledOnRequest = !this.collector.errors.isEmpty();
+        this.publisher.flush();
+        this.publisher.publish(2, true);
+        this.publisher.close();
+        assertAll(
+                () -> assertFalse(signalledOnRequest),
+                () -> assertEquals(1, this.collector.errors.size()),
+                () -> assertInstanceOf(IllegalArgumentException.class, this.collector.errors.get(0)),
+                () -> assertTrue(this.collector.batches.isEmpty()),
+                () -> assertEquals(1, this.collector.completed.getCount())
+        );
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("A subscriber cancelling from onSubscribe is not kept")
+    void testCancelOnSubscribe() {
+        List<Object> signals = new CopyOnWriteArrayList<>();
+        this.publisher.subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.cancel();
+            }
+
+            @Override
+            public void onNext(List<DeviceStateChange> batch) {
+                signals.add(batch);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                signals.add(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                signals.add("complete");
+            }
+        });
+        int subscribers = this.publisher.subscribers();
+        this.publisher.close();
+        assertAll(
+                () -> assertEquals(1, subscribers),
+                () -> assertTrue(signals.isEmpty())
+        );
+    }
+}
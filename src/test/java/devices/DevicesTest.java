@@ -0,0 +1,120 @@
+package devices;
+
+import org.junit.jupiter.api.*;
+import tdd.DeviceImpl;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DevicesTest {
+
+    @Nested
+    class FromTdd {
+        private DeviceImpl tddDevice;
+        private Device device;
+
+        @BeforeEach
+        void init() {
+            this.tddDevice = new DeviceImpl();
+            this.device = Devices.fromTdd(this.tddDevice);
+        }
+
+        @Test
+        @Tag("UnitTest")
+        @DisplayName("on() switches the tdd device on and does not throw when already on")
+        void testOn() {
+            this.device.on();
+            this.device.on();
+            assertAll(
+                    () -> assertTrue(this.tddDevice.isOn()),
+                    () -> assertTrue(this.device.isOn())
+            );
+        }
+
+        @Test
+        @Tag("UnitTest")
+        @DisplayName("off() and reset() switch the tdd device off")
+        void testOffAndReset() {
+            this.device.on();
+            this.device.off();
+            boolean offAfterOff = !this.tddDevice.isOn();
+            this.device.on();
+            this.device.reset();
+            assertAll(
+                    () -> assertTrue(offAfterOff),
+                    () -> assertFalse(this.tddDevice.isOn())
+            );
+        }
+    }
+
+    @Nested
+    class ToTdd {
+        private StandardDevice standardDevice;
+        private tdd.Device device;
+
+        @BeforeEach
+        void init() {
+            this.standardDevice = new StandardDevice(FailingPolicies.never());
+            this.device = Devices.toTdd(this.standardDevice);
+        }
+
+        @Test
+        @Tag("UnitTest")
+        @DisplayName("switchOn() switches the device on and throws when already on")
+        void testSwitchOn() {
+            this.device.switchOn();
+            assertAll(
+                    () -> assertTrue(this.standardDevice.isOn()),
+                    () -> assertThrows(IllegalStateException.class, this.device::switchOn)
+            );
+        }
+
+        @Test
+        @Tag("UnitTest")
+        @DisplayName("Policy failures surface from switchOn()")
+        void testPolicyFailure() {
+            tdd.Device failing = Devices.toTdd(new StandardDevice(FailingPolicies.always()));
+            assertAll(
+                    () -> assertThrows(IllegalStateException.class, failing::switchOn),
+                    () -> assertFalse(failing.isOn())
+            );
+        }
+
+        @Test
+        @Tag("UnitTest")
+        @DisplayName("switchOff() switches the device off")
+        void testSwitchOff() {
+            this.device.switchOn();
+            this.device.switchOff();
+            assertFalse(this.standardDevice.isOn());
+        }
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("Adapting an adapter back gives the original device")
+    void testUnwrap() {
+        DeviceImpl tddDevice = new DeviceImpl();
+        StandardDevice standardDevice = new StandardDevice(FailingPolicies.never());
+        assertAll(
+                () -> assertSame(tddDevice, Devices.toTdd(Devices.fromTdd(tddDevice))),
+                () -> assertSame(standardDevice, Devices.fromTdd(Devices.toTdd(standardDevice)))
+        );
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("Lists are adapted element by element in order")
+    void testLists() {
+        DeviceImpl first = new DeviceImpl();
+        DeviceImpl second = new DeviceImpl();
+        List<Device> adapted = Devices.fromTdd(List.of(first, second));
+        adapted.get(1).on();
+        assertAll(
+                () -> assertEquals(2, adapted.size()),
+                () -> assertFalse(first.isOn()),
+                () -> assertTrue(second.isOn())
+        );
+    }
+}
@@ -0,0 +1,176 @@
+package devices;
+
+import org.junit.jupiter.api.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DiagnosticWriterTest {
+    private List<StandardDevice> devices;
+
+    @BeforeEach
+    void init() {
+        this.devices = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            FailingPolicy policy = switch (i % 3) {
+                case 0 -> FailingPolicies.never();
+                case 1 -> FailingPolicies.always();
+                default -> FailingPolicies.failAfter(i % 7);
+            };
+            StandardDevice device = new StandardDevice(policy);
+            device.tryOn();
+            this.devices.add(device);
+        }
+    }
+
+    private String lines() {
+        StringBuilder expected = new StringBuilder();
+        for (StandardDevice device : this.devices) {
+            expected.append(device).append('\n');
+        }
+        return expected.toString();
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("The text appended to a StringBuilder or CharBuffer is the device's toString()")
+    void testAppend() {
+        StandardDevice device = this.devices.get(2);
+        CharBuffer chars = CharBuffer.allocate(100);
+        DiagnosticWriter.append(chars, device);
+        assertAll(
+                () -> assertEquals(device.toString(), DiagnosticWriter.append(new StringBuilder(), device).toString()),
+                () -> assertEquals(device.toString(), chars.flip().toString())
+        );
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("A device that does not fit leaves the buffer unchanged")
+    void testOverflow() {
+        CharBuffer chars = CharBuffer.allocate(20);
+        ByteBuffer bytes = ByteBuffer.allocate(20);
+        StandardDevice device = this.devices.get(0);
+        assertAll(
+                () -> assertThrows(BufferOverflowException.class, () -> DiagnosticWriter.append(chars, device)),
+                () -> assertEquals(0, chars.position()),
+                () -> assertThrows(BufferOverflowException.class, () -> new DiagnosticWriter().put(bytes, device)),
+                () -> assertEquals(0, bytes.position())
+        );
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("A ByteBuffer receives the toString() line of every device")
+    void testPut() {
+        DiagnosticWriter writer = new DiagnosticWriter();
+        ByteBuffer bytes = ByteBuffer.allocate(100_000);
+        for (StandardDevice device : this.devices) {
+            writer.put(bytes, device);
+        }
+        assertEquals(this.lines(), StandardCharsets.UTF_8.decode(bytes.flip()).toString());
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("A fleet streamed through a small block gives the same text")
+    void testWrite() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written = new DiagnosticWriter(64).write(this.devices, Channels.newChannel(out));
+        assertAll(
+                () -> assertEquals(this.lines(), out.toString(StandardCharsets.UTF_8)),
+                () -> assertEquals(out.size(), written)
+        );
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("The columnar dump holds a policy table, one index per device and the on bits")
+    void testColumnar() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written = new DiagnosticWriter(64).writeColumnar(this.devices, Channels.newChannel(out));
+        ByteBuffer dump = ByteBuffer.wrap(out.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+        int size = dump.getInt();
+        String[] policies = new String[dump.getShort()];
+        for (int p = 0; p < policies.length; p++) {
+            byte[] name = new byte[dump.getShort()];
+            dump.get(name);
+            policies[p] = new String(name, StandardCharsets.UTF_8);
+        }
+        byte[] indexes = new byte[size];
+        dump.get(indexes);
+        long[] on = new long[(size + 63) >>> 6];
+        dump.asLongBuffer().get(on);
+        assertAll(
+                () -> assertEquals(1000, size),
+                () -> assertEquals(out.size(), written),
+                () -> assertEquals(dump.position() + on.length * Long.BYTES, dump.limit())
+        );
+        for (int i = 0; i < size; i++) {
+            StandardDevice device = this.devices.get(i);
+            assertEquals(device.failingPolicy().policyName(), policies[indexes[i]], "policy of device " + i);
+            assertEquals(device.isOn(), (on[i >>> 6] >>> i & 1) != 0, "on flag of device " + i);
+        }
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("The columnar dump writes unsigned indexes and refuses more policies than its count holds")
+    void testColumnarPolicyLimits() throws IOException {
+        List<StandardDevice> many = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            many.add(new StandardDevice(FailingPolicies.failAfter(i)));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new DiagnosticWriter().writeColumnar(many, Channels.newChannel(out));
+        ByteBuffer dump = ByteBuffer.wrap(out.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+        dump.getInt();
+        int policies = Short.toUnsignedInt(dump.getShort());
+        for (int p = 0; p < policies; p++) {
+            int length = Short.toUnsignedInt(dump.getShort());
+            dump.position(dump.position() + length);
+        }
+        dump.position(dump.position() + 199);
+        int lastIndex = Byte.toUnsignedInt(dump.get());
+
+        List<StandardDevice> tooMany = new ArrayList<>();
+        for (int i = 0; i < 1 << 16; i++) {
+            tooMany.add(new StandardDevice(FailingPolicies.failAfter(i)));
+        }
+        assertAll(
+                () -> assertEquals(200, policies),
+                () -> assertEquals(199, lastIndex),
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> new DiagnosticWriter().writeColumnar(tooMany, Channels.newChannel(new ByteArrayOutputStream())))
+        );
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("Blocks too small for a header and a word are rejected, the smallest one writes the same columnar dump")
+    void testBlockSize() throws IOException {
+        ByteArrayOutputStream columnar = new ByteArrayOutputStream();
+        new DiagnosticWriter().writeColumnar(this.devices, Channels.newChannel(columnar));
+        ByteArrayOutputStream smallColumnar = new ByteArrayOutputStream();
+        DiagnosticWriter small = new DiagnosticWriter(34);
+        small.writeColumnar(this.devices, Channels.newChannel(smallColumnar));
+        assertAll(
+                () -> assertThrows(IllegalArgumentException.class, () -> new DiagnosticWriter(33)),
+                () -> assertThrows(IllegalArgumentException.class, () -> new DiagnosticWriter(0)),
+                () -> assertThrows(IllegalArgumentException.class, () -> new DiagnosticWriter(-1)),
+                () -> assertArrayEquals(columnar.toByteArray(), smallColumnar.toByteArray()),
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> small.write(this.devices, Channels.newChannel(new ByteArrayOutputStream())))
+        );
+    }
+}
@@ -0,0 +1,65 @@
+package devices;
+
+import org.junit.jupiter.api.*;
+
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DurationHistogramTest {
+    private DurationHistogram histogram;
+
+    @BeforeEach
+    void init() {
+        this.histogram = new DurationHistogram();
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("An empty histogram reports zero")
+    void testEmpty() {
+        assertAll(
+                () -> assertEquals(0, this.histogram.count()),
+                () -> assertEquals(0, this.histogram.valueAtPercentile(99)),
+                () -> assertEquals(0, this.histogram.max())
+        );
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("Every value falls in a bucket whose bound is within 1/16 of it")
+    void testBucketPrecision() {
+        LongStream.of(0, 1, 15, 16, 17, 31, 32, 1_000, 123_456_789, Long.MAX_VALUE).forEach(value -> {
+            long bound = DurationHistogram.highestValue(DurationHistogram.bucket(value));
+            assertTrue(bound >= value, () -> value + " above its bound " + bound);
+            assertTrue(bound - value <= value / 16, () -> value + " too far from its bound " + bound);
+        });
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("Percentiles follow the recorded distribution")
+    void testPercentiles() {
+        LongStream.rangeClosed(1, 1_000).forEach(this.histogram::record);
+        assertAll(
+                () -> assertEquals(1_000, this.histogram.count()),
+                () -> assertEquals(500, this.histogram.valueAtPercentile(50), 500 / 16),
+                () -> assertEquals(990, this.histogram.valueAtPercentile(99), 990 / 16),
+                () -> assertEquals(1_000, this.histogram.max(), 1_000 / 16),
+                () -> assertThrows(IllegalArgumentException.class, () -> this.histogram.valueAtPercentile(101))
+        );
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("Negative durations are clamped and clear empties the histogram")
+    void testClampAndClear() {
+        this.histogram.record(-5);
+        long maxAfterNegative = this.histogram.max();
+        this.histogram.clear();
+        assertAll(
+                () -> assertEquals(0, maxAfterNegative),
+                () -> assertEquals(0, this.histogram.count())
+        );
+    }
+}
@@ -0,0 +1,225 @@
+package devices;
+
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DutyCycleSchedulerTest {
+    private static final Duration TICK = Duration.ofMillis(1);
+    private DutyCycleScheduler scheduler;
+
+    @BeforeEach
+    void init() {
+        this.scheduler = new DutyCycleScheduler(8, TICK, DutyCycleScheduler.RetryPolicy.fixed(2, 1), new SplittableRandom(1));
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("A device is on for onTime and off for offTime, over several turns of the wheel")
+    void testDutyCycle() {
+        StandardDevice device = new StandardDevice(FailingPolicies.never());
+        this.scheduler.add(device, Duration.ofMillis(10), Duration.ofMillis(20), Duration.ZERO);
+        this.scheduler.tick();
+        boolean onAtFirstTick = device.isOn();
+        this.scheduler.advance(9);
+        boolean onAt10 = device.isOn();
+        this.scheduler.tick();
+        boolean onAt11 = device.isOn();
+        this.scheduler.advance(19);
+        boolean onAt30 = device.isOn();
+        this.scheduler.tick();
+        assertAll(
+                () -> assertTrue(onAtFirstTick),
+                () -> assertTrue(onAt10),
+                () -> assertFalse(onAt11),
+                () -> assertFalse(onAt30),
+                () -> assertTrue(device.isOn()),
+                () -> assertEquals(3, this.scheduler.transitions())
+        );
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("Failed switch ons reset the device and are retried until the policy gives up")
+    void testRetries() {
+        StandardDevice device = new StandardDevice(FailingPolicies.always());
+        this.scheduler.add(device, Duration.ofMillis(5), Duration.ofMillis(5), Duration.ZERO);
+        this.scheduler.advance(3);
+        long failuresAfterRetries = this.scheduler.failures();
+        long givenUpAfterRetries = this.scheduler.givenUp();
+        this.scheduler.advance(5);
+        assertAll(
+                () -> assertEquals(3, failuresAfterRetries),
+                () -> assertEquals(1, givenUpAfterRetries),
+                () -> assertEquals(4, this.scheduler.failures()),
+                () -> assertEquals(0, this.scheduler.transitions()),
+                () -> assertFalse(device.isOn())
+        );
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("A device succeeding on a retry starts its on period")
+    void testRetrySucceeds() {
+        // fails the first attempt only, a reset does not rearm it
+        StandardDevice device = new StandardDevice(new FailingPolicy() {
+            private int attempts = 0;
+
+            @Override
+            public boolean attemptOn() {
+                return this.attempts++ > 0;
+            }
+
+            @Override
+            public void reset() {
+            }
+
+            @Override
+            public String policyName() {
+                return "failOnce";
+            }
+        });
+        this.scheduler.add(device, Duration.ofMillis(5), Duration.ofMillis(5), Duration.ZERO);
+        this.scheduler.advance(2);
+        assertAll(
+                () -> assertTrue(device.isOn()),
+                () -> assertEquals(1, this.scheduler.failures()),
+                () -> assertEquals(1, this.scheduler.transitions())
+        );
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("A device throwing from a transition is counted and rescheduled, the rest of its bucket still runs")
+    void testThrowingDevice() {
+        StandardDevice standard = new StandardDevice(FailingPolicies.never());
+        // throws from its first switch on only
+        Device throwing = new Device() {
+            private boolean thrown = false;
+
+            @Override
+            public void on() {
+                standard.on();
+            }
+
+            @Override
+            public boolean tryOn() {
+                if (!this.thrown) {
+                    this.thrown = true;
+                    throw new IllegalStateException("broken");
+                }
+                return standard.tryOn();
+            }
+
+            @Override
+            public void off() {
+                standard.off();
+            }
+
+            @Override
+            public boolean isOn() {
+                return standard.isOn();
+            }
+
+            @Override
+            public void reset() {
+                standard.reset();
+            }
+        };
+        StandardDevice other = new StandardDevice(FailingPolicies.never());
+        this.scheduler.add(throwing, Duration.ofMillis(5), Duration.ofMillis(5), Duration.ZERO);
+        this.scheduler.add(other, Duration.ofMillis(5), Duration.ofMillis(5), Duration.ZERO);
+        this.scheduler.tick();
+        boolean otherOnAfterError = other.isOn();
+        this.scheduler.advance(5);
+        assertAll(
+                () -> assertTrue(otherOnAfterError),
+                () -> assertEquals(1, this.scheduler.errors()),
+                () -> assertTrue(throwing.isOn()),
+                () -> assertEquals(3, this.scheduler.transitions())
+        );
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("Jitter spreads the transitions of identical devices over the jitter window")
+    void testJitter() {
+        StandardDevice[] devices = new StandardDevice[1000];
+        for (int i = 0; i < devices.length; i++) {
+            devices[i] = new StandardDevice(FailingPolicies.never());
+            this.scheduler.add(devices[i], Duration.ofMillis(100), Duration.ofMillis(100), Duration.ofMillis(9));
+        }
+        int firstTick = this.scheduler.tick();
+        this.scheduler.advance(9);
+        assertAll(
+                () -> assertTrue(firstTick > 0 && firstTick < 300, "first tick: " + firstTick),
+                () -> assertEquals(1000, this.scheduler.transitions()),
+                () -> assertEquals(1000, this.scheduler.size())
+        );
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("Durations are rounded up to whole ticks")
+    void testRounding() {
+        StandardDevice device = new StandardDevice(FailingPolicies.never());
+        this.scheduler.add(device, Duration.ofNanos(1_500_000), Duration.ofMillis(1), Duration.ZERO);
+        this.scheduler.advance(2);
+        boolean onAt2 = device.isOn();
+        this.scheduler.tick();
+        assertAll(
+                () -> assertTrue(onAt2),
+                () -> assertFalse(device.isOn())
+        );
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("Periods and jitter too long for an int of ticks are still scheduled in the future")
+    void testLongPeriods() {
+        StandardDevice device = new StandardDevice(FailingPolicies.never());
+        Duration month = Duration.ofDays(30);
+        int slot = this.scheduler.add(device, month, month, Duration.ofMillis(2));
+        this.scheduler.advance(this.scheduler.due(slot) - this.scheduler.now());
+        long onFor = this.scheduler.due(slot) - this.scheduler.now();
+        int jittered = this.scheduler.add(new StandardDevice(FailingPolicies.never()), TICK, TICK, Duration.ofDays(365 * 1000));
+        assertAll(
+                () -> assertTrue(device.isOn()),
+                () -> assertTrue(onFor >= Integer.MAX_VALUE, () -> "on for " + onFor),
+                () -> assertTrue(this.scheduler.due(jittered) > this.scheduler.now())
+        );
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("Retry delays are at least one tick and exponential ones saturate instead of wrapping")
+    void testRetryDelays() {
+        DutyCycleScheduler.RetryPolicy exponential = DutyCycleScheduler.RetryPolicy.exponential(100, 3);
+        assertAll(
+                () -> assertEquals(3, exponential.retryDelay(1)),
+                () -> assertEquals(12, exponential.retryDelay(3)),
+                () -> assertEquals(3L << 61, exponential.retryDelay(62)),
+                () -> assertEquals(Long.MAX_VALUE, exponential.retryDelay(63)),
+                () -> assertEquals(Long.MAX_VALUE, exponential.retryDelay(100)),
+                () -> assertEquals(-1, exponential.retryDelay(101)),
+                () -> assertThrows(IllegalArgumentException.class, () -> DutyCycleScheduler.RetryPolicy.fixed(1, 0)),
+                () -> assertThrows(IllegalArgumentException.class, () -> DutyCycleScheduler.RetryPolicy.exponential(1, -5))
+        );
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("Invalid wheels and ticks are rejected")
+    void testInvalidArguments() {
+        DutyCycleScheduler.RetryPolicy never = DutyCycleScheduler.RetryPolicy.never();
+        assertAll(
+                () -> assertThrows(IllegalArgumentException.class, () -> new DutyCycleScheduler(0, TICK, never, new SplittableRandom())),
+                () -> assertThrows(IllegalArgumentException.class, () -> new DutyCycleScheduler(8, Duration.ZERO, never, new SplittableRandom())),
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> this.scheduler.add(new StandardDevice(FailingPolicies.never()), Duration.ofMillis(-1), TICK, TICK))
+        );
+    }
+}
@@ -0,0 +1,174 @@
+package devices;
+
+import org.junit.jupiter.api.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class FailingPoliciesTest {
+
+    private static boolean[] attempts(FailingPolicy policy, int count) {
+        boolean[] results = new boolean[count];
+        for (int i = 0; i < count; i++) {
+            results[i] = policy.attemptOn();
+        }
+        return results;
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("never and always policies have constant outcomes")
+    void testConstantPolicies() {
+        assertAll(
+                () -> assertArrayEquals(new boolean[]{true, true}, attempts(FailingPolicies.never(), 2)),
+                () -> assertArrayEquals(new boolean[]{false, false}, attempts(FailingPolicies.always(), 2)),
+                () -> assertEquals("never", FailingPolicies.never().policyName())
+        );
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("failAfter succeeds N times and then fails until reset")
+    void testFailAfter() {
+        FailingPolicy policy = FailingPolicies.failAfter(2);
+        boolean[] beforeReset = attempts(policy, 4);
+        policy.reset();
+        assertAll(
+                () -> assertArrayEquals(new boolean[]{true, true, false, false}, beforeReset),
+                () -> assertTrue(policy.attemptOn()),
+                () -> assertEquals("failAfter(2)", policy.policyName()),
+                () -> assertThrows(IllegalArgumentException.class, () -> FailingPolicies.failAfter(-1))
+        );
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("flaky fails at the requested rate and recovers")
+    void testFlaky() {
+        FailingPolicy policy = FailingPolicies.flaky(0.1, new SplittableRandom(42));
+        long failures = IntStream.range(0, 100_000).filter(i -> !policy.attemptOn()).count();
+        assertAll(
+                () -> assertEquals(10_000, failures, 500),
+                () -> assertTrue(FailingPolicies.flaky(0, new SplittableRandom(1)).attemptOn()),
+                () -> assertFalse(FailingPolicies.flaky(1, new SplittableRandom(1)).attemptOn()),
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> FailingPolicies.flaky(1.5, new SplittableRandom(1)))
+        );
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("timeWindow fails only inside the failing part of each period")
+    void testTimeWindow() {
+        AtomicLong now = new AtomicLong();
+        FailingPolicy policy = new FailingPolicies.TimeWindow(100, 30, now::get);
+        boolean atStart = policy.attemptOn();
+        now.set(129);
+        boolean insideNextWindow = policy.attemptOn();
+        now.set(130);
+        assertAll(
+                () -> assertFalse(atStart),
+                () -> assertFalse(insideNextWindow),
+                () -> assertTrue(policy.attemptOn()),
+                () -> assertThrows(IllegalArgumentException.class, () -> FailingPolicies.timeWindow(10, 20))
+        );
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("circuitBreaker opens after consecutive failures and tries again later")
+    void testCircuitBreaker() {
+        FailingPolicy delegate = mock(FailingPolicy.class);
+        when(delegate.attemptOn()).thenReturn(false, false, true);
+        FailingPolicies.CircuitBreaker breaker = FailingPolicies.circuitBreaker(delegate, 2, 3);
+        boolean[] results = attempts(breaker, 6);
+        assertAll(
+                () -> assertArrayEquals(new boolean[]{false, false, false, false, false, true}, results),
+                () -> assertFalse(breaker.isOpen()),
+                () -> verify(delegate, times(3)).attemptOn()
+        );
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("circuitBreaker opens again as soon as its half-open trial fails")
+    void testCircuitBreakerFailedTrial() {
+        FailingPolicy delegate = mock(FailingPolicy.class);
+        when(delegate.attemptOn()).thenReturn(false, false, false, true);
+        FailingPolicies.CircuitBreaker breaker = FailingPolicies.circuitBreaker(delegate, 2, 2);
+        boolean[] opening = attempts(breaker, 4);
+        boolean halfOpenAfterOpening = breaker.isHalfOpen();
+        boolean failedTrial = breaker.attemptOn();
+        boolean openAfterFailedTrial = breaker.isOpen();
+        boolean[] afterFailedTrial = attempts(breaker, 3);
+        assertAll(
+                () -> assertArrayEquals(new boolean[]{false, false, false, false}, opening),
+                () -> assertTrue(halfOpenAfterOpening),
+                () -> assertFalse(failedTrial),
+                () -> assertTrue(openAfterFailedTrial),
+                () -> assertArrayEquals(new boolean[]{false, false, true}, afterFailedTrial),
+                () -> assertFalse(breaker.isHalfOpen()),
+                () -> verify(delegate, times(4)).attemptOn()
+        );
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("and/or combine policies left to right and reset both")
+    void testAndOr() {
+        FailingPolicy first = mock(FailingPolicy.class);
+        FailingPolicy second = mock(FailingPolicy.class);
+        when(first.policyName()).thenReturn("first");
+        when(second.policyName()).thenReturn("second");
+        when(first.attemptOn()).thenReturn(false);
+        when(second.attemptOn()).thenReturn(true);
+        FailingPolicy and = FailingPolicies.and(first, second);
+        FailingPolicy or = FailingPolicies.or(first, second);
+        boolean andResult = and.attemptOn();
+        boolean orResult = or.attemptOn();
+        and.reset();
+        assertAll(
+                () -> assertFalse(andResult),
+                () -> assertTrue(orResult),
+                () -> verify(second, times(1)).attemptOn(),
+                () -> verify(first).reset(),
+                () -> verify(second).reset(),
+                () -> assertEquals("and(first, second)", and.policyName()),
+                () -> assertEquals("or(first, second)", or.policyName())
+        );
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("firstN and afterN limit which attempts the policy decides")
+    void testFirstNAfterN() {
+        FailingPolicy firstN = FailingPolicies.firstN(2, FailingPolicies.always());
+        FailingPolicy afterN = FailingPolicies.afterN(2, FailingPolicies.always());
+        boolean[] firstNResults = attempts(firstN, 3);
+        boolean[] afterNResults = attempts(afterN, 3);
+        afterN.reset();
+        assertAll(
+                () -> assertArrayEquals(new boolean[]{false, false, true}, firstNResults),
+                () -> assertArrayEquals(new boolean[]{true, true, false}, afterNResults),
+                () -> assertTrue(afterN.attemptOn()),
+                () -> assertEquals("afterN(2, always)", afterN.policyName())
+        );
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("Composed policies drive a StandardDevice")
+    void testComposedPolicyOnDevice() {
+        Device device = new StandardDevice(FailingPolicies.and(FailingPolicies.failAfter(1), FailingPolicies.never()));
+        device.on();
+        device.off();
+        assertAll(
+                () -> assertThrows(IllegalStateException.class, device::on),
+                () -> assertEquals("StandardDevice{policy=and(failAfter(1), never), on=false}", device.toString())
+        );
+    }
+}
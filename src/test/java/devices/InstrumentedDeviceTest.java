@@ -0,0 +1,105 @@
+package devices;
+
+import org.junit.jupiter.api.*;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class InstrumentedDeviceTest {
+    private DeviceMetrics metrics;
+    private Device device;
+    @Mock
+    FailingPolicy failingPolicy;
+
+    @BeforeEach
+    void init() {
+        MockitoAnnotations.openMocks(this);
+        this.metrics = new DeviceMetrics();
+        this.device = new InstrumentedDevice(new StandardDevice(this.failingPolicy), this.metrics);
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("Instrumented device must specify a device and metrics")
+    void testNonNullArguments() {
+        assertAll(
+                () -> assertThrows(NullPointerException.class, () -> new InstrumentedDevice(null, this.metrics)),
+                () -> assertThrows(NullPointerException.class, () -> new InstrumentedDevice(this.device, null))
+        );
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("Attempts, successes, failures and resets are counted")
+    void testCounters() {
+        when(this.failingPolicy.attemptOn()).thenReturn(true, false, false);
+        this.device.on();
+        assertThrows(IllegalStateException.class, () -> this.device.on());
+        this.device.tryOn();
+        this.device.reset();
+        DeviceMetrics.Snapshot snapshot = this.metrics.snapshot();
+        assertAll(
+                () -> assertEquals(3, snapshot.attempts()),
+                () -> assertEquals(1, snapshot.successes()),
+                () -> assertEquals(2, snapshot.failures()),
+                () -> assertEquals(1, snapshot.resets())
+        );
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("The time spent on is recorded once per on period")
+    void testOnDurations() {
+        when(this.failingPolicy.attemptOn()).thenReturn(true);
+        this.device.on();
+        this.device.on();
+        this.device.off();
+        this.device.off();
+        this.device.tryOn();
+        this.device.reset();
+        assertAll(
+                () -> assertEquals(2, this.metrics.getOnDurationCount()),
+                () -> assertTrue(this.metrics.getOnDurationMaxNanos() >= this.metrics.getOnDurationP50Nanos())
+        );
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("Disabled metrics record nothing but the device keeps working")
+    void testDisabled() {
+        when(this.failingPolicy.attemptOn()).thenReturn(true);
+        this.metrics.setEnabled(false);
+        this.device.on();
+        boolean isOn = this.device.isOn();
+        this.device.reset();
+        assertAll(
+                () -> assertTrue(isOn),
+                () -> assertEquals(new DeviceMetrics().snapshot(), this.metrics.snapshot())
+        );
+    }
+
+    @Test
+    @DisplayName("Metrics can be read through JMX")
+    void testJmx() throws JMException {
+        when(this.failingPolicy.attemptOn()).thenReturn(true);
+        this.device.on();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = this.metrics.registerMBean("InstrumentedDeviceTest-" + System.nanoTime());
+        try {
+            assertAll(
+                    () -> assertEquals(1L, server.getAttribute(name, "Attempts")),
+                    () -> assertEquals(1L, server.getAttribute(name, "Successes")),
+                    () -> assertEquals(true, server.getAttribute(name, "Enabled"))
+            );
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+}
@@ -4,29 +4,24 @@ import org.junit.jupiter.api.*;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
-import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.SplittableRandom;
 import java.util.random.RandomGenerator;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 class RandomFailingUnitTest {
     FailingPolicy failingPolicy;
     @Mock
     RandomGenerator randomGenerator;
-    private static final String RANDOM_FAILING_POLICY_FIELD_NAME = "random";
-    
+
+    // the mock goes through the constructor: no reflection on a private field, and nothing
+    // shared between tests running in parallel
     @BeforeEach
     public void unit() {
-        try {
-            MockitoAnnotations.openMocks(this);
-            this.failingPolicy = new RandomFailing();
-            final Field field = this.failingPolicy.getClass().getDeclaredField(RANDOM_FAILING_POLICY_FIELD_NAME);
-            field.setAccessible(true);
-            field.set(this.failingPolicy, this.randomGenerator);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        MockitoAnnotations.openMocks(this);
+        this.failingPolicy = new RandomFailing(this.randomGenerator);
     }
     
     @Test
@@ -92,4 +87,227 @@ class RandomFailingUnitTest {
             );
         }
     }
+    
+    @Nested
+    class InjectedRandomGenerator {
+        private static final int ATTEMPTS = 64;
+        
+        private boolean[] attempts(RandomFailing policy) {
+            boolean[] results = new boolean[ATTEMPTS];
+            for (int i = 0; i < ATTEMPTS; i++) {
+                results[i] = policy.attemptOn();
+                policy.reset();
+            }
+            return results;
+        }
+        
+        @Test
+        @Tag("UnitTest")
+        @DisplayName("A RandomFailing policy must specify a random generator")
+        public void testNonNullRandomGenerator() {
+            assertThrows(NullPointerException.class, () -> new RandomFailing(null));
+        }
+        
+        @Test
+        @Tag("UnitTest")
+        @DisplayName("The injected random generator drives the policy")
+        public void testInjectedGenerator() {
+            when(RandomFailingUnitTest.this.randomGenerator.nextBoolean()).thenReturn(true);
+            assertFalse(new RandomFailing(RandomFailingUnitTest.this.randomGenerator).attemptOn());
+        }
+        
+        @Test
+        @Tag("UnitTest")
+        @DisplayName("Policies with the same seed make the same decisions")
+        public void testSeeded() {
+            assertAll(
+                    () -> assertArrayEquals(attempts(RandomFailing.seeded(42)), attempts(RandomFailing.seeded(42))),
+                    () -> assertArrayEquals(attempts(RandomFailing.of("L64X128MixRandom", 42)),
+                            attempts(RandomFailing.of("L64X128MixRandom", 42)))
+            );
+        }
+        
+        @Test
+        @Tag("UnitTest")
+        @DisplayName("Per-device policies are deterministic and independent of each other")
+        public void testForDevice() {
+            assertAll(
+                    () -> assertArrayEquals(attempts(RandomFailing.forDevice(42, 7)), attempts(RandomFailing.forDevice(42, 7))),
+                    () -> assertFalse(Arrays.equals(attempts(RandomFailing.forDevice(42, 7)), attempts(RandomFailing.forDevice(42, 8))))
+            );
+        }
+        
+        @Test
+        @Tag("UnitTest")
+        @DisplayName("Splitting is deterministic and only supported by splittable generators")
+        public void testSplit() {
+            assertAll(
+                    () -> assertArrayEquals(attempts(RandomFailing.seeded(42).split()), attempts(RandomFailing.seeded(42).split())),
+                    () -> assertThrows(UnsupportedOperationException.class,
+                            () -> new RandomFailing(RandomFailingUnitTest.this.randomGenerator).split())
+            );
+        }
+    }
+    
+    @Nested
+    class BatchEvaluation {
+        
+        @Test
+        @Tag("UnitTest")
+        @DisplayName("One random word decides 64 devices and leaves bits outside the range untouched")
+        public void testBatchAttemptOn() {
+            when(RandomFailingUnitTest.this.randomGenerator.nextLong()).thenReturn(0b1010L, -1L);
+            long[] failed = new long[2];
+            ((BatchFailingPolicy) RandomFailingUnitTest.this.failingPolicy).attemptOn(failed, 1, 66);
+            assertAll(
+                    () -> assertEquals(0b1010L, failed[0]),
+                    () -> assertEquals(0b11L, failed[1]),
+                    () -> verify(RandomFailingUnitTest.this.randomGenerator, times(2)).nextLong()
+            );
+        }
+        
+        @Test
+        @Tag("UnitTest")
+        @DisplayName("Failed devices stay failed and fully failed words draw nothing")
+        public void testBatchFailuresAreSticky() {
+            when(RandomFailingUnitTest.this.randomGenerator.nextLong()).thenReturn(0L);
+            long[] failed = {-1L, 0b100L};
+            ((BatchFailingPolicy) RandomFailingUnitTest.this.failingPolicy).attemptOn(failed, 0, 128);
+            assertAll(
+                    () -> assertEquals(-1L, failed[0]),
+                    () -> assertEquals(0b100L, failed[1]),
+                    () -> verify(RandomFailingUnitTest.this.randomGenerator, times(1)).nextLong()
+            );
+        }
+        
+        @Test
+        @Tag("UnitTest")
+        @DisplayName("Ranges outside the masks are rejected")
+        public void testBatchOutOfBounds() {
+            assertThrows(IndexOutOfBoundsException.class,
+                    () -> ((BatchFailingPolicy) RandomFailingUnitTest.this.failingPolicy).attemptOn(new long[1], 0, 65));
+        }
+    }
+
+    @Nested
+    class FailureProbability {
+        private static final int ATTEMPTS = 100_000;
+
+        private int failures(RandomFailing policy) {
+            int failures = 0;
+            for (int i = 0; i < ATTEMPTS; i++) {
+                if (!policy.attemptOn()) {
+                    failures++;
+                }
+                policy.reset();
+            }
+            return failures;
+        }
+
+        @Test
+        @Tag("UnitTest")
+        @DisplayName("The failure probability must be in [0, 1]")
+        public void testInvalidProbability() {
+            assertAll(
+                    () -> assertThrows(IllegalArgumentException.class, () -> RandomFailing.withProbability(-0.1, RandomFailingUnitTest.this.randomGenerator)),
+                    () -> assertThrows(IllegalArgumentException.class, () -> RandomFailing.skipAhead(1.1, RandomFailingUnitTest.this.randomGenerator)),
+                    () -> assertThrows(IllegalArgumentException.class, () -> RandomFailing.withProbability(Double.NaN, RandomFailingUnitTest.this.randomGenerator))
+            );
+        }
+
+        @Test
+        @Tag("UnitTest")
+        @DisplayName("An attempt fails when the top 53 bits of nextLong() are below the threshold")
+        public void testThreshold() {
+            RandomFailing policy = RandomFailing.withProbability(0.25, RandomFailingUnitTest.this.randomGenerator);
+            when(RandomFailingUnitTest.this.randomGenerator.nextLong()).thenReturn(((1L << 51) - 1) << 11, 1L << 62);
+            boolean belowThreshold = policy.attemptOn();
+            policy.reset();
+            boolean atThreshold = policy.attemptOn();
+            assertAll(
+                    () -> assertFalse(belowThreshold),
+                    () -> assertTrue(atThreshold),
+                    () -> assertEquals("random(0.25)", policy.policyName()),
+                    () -> verify(RandomFailingUnitTest.this.randomGenerator, never()).nextBoolean()
+            );
+        }
+
+        @Test
+        @Tag("UnitTest")
+        @DisplayName("Skip-ahead draws once for every failure")
+        public void testSkipAheadDraws() {
+            // log(0.5) / log(1 - 0.001) = 692.8: the 693rd attempt fails
+            when(RandomFailingUnitTest.this.randomGenerator.nextDouble()).thenReturn(0.5);
+            RandomFailing policy = RandomFailing.skipAhead(0.001, RandomFailingUnitTest.this.randomGenerator);
+            int firstFailure = 0;
+            for (int attempt = 1; firstFailure == 0; attempt++) {
+                if (!policy.attemptOn()) {
+                    firstFailure = attempt;
+                }
+            }
+            int failedAt = firstFailure;
+            assertAll(
+                    () -> assertEquals(693, failedAt),
+                    () -> verify(RandomFailingUnitTest.this.randomGenerator, times(1)).nextDouble(),
+                    () -> verify(RandomFailingUnitTest.this.randomGenerator, never()).nextLong()
+            );
+        }
+
+        @Test
+        @Tag("UnitTest")
+        @DisplayName("Threshold and skip-ahead fail at the configured rate")
+        public void testRate() {
+            int threshold = failures(RandomFailing.withProbability(0.01, new SplittableRandom(1)));
+            int skipAhead = failures(RandomFailing.skipAhead(0.01, new SplittableRandom(2)));
+            // 1000 expected failures, 5 standard deviations is about 160
+            assertAll(
+                    () -> assertEquals(1000, threshold, 160),
+                    () -> assertEquals(1000, skipAhead, 160),
+                    () -> assertEquals(0, failures(RandomFailing.skipAhead(0, new SplittableRandom(3)))),
+                    () -> assertEquals(ATTEMPTS, failures(RandomFailing.skipAhead(1, new SplittableRandom(4)))),
+                    () -> assertEquals(ATTEMPTS, failures(RandomFailing.withProbability(1, new SplittableRandom(5))))
+            );
+        }
+
+        @Test
+        @Tag("UnitTest")
+        @DisplayName("A skip-ahead batch only draws for the devices that fail")
+        public void testSkipAheadBatch() {
+            when(RandomFailingUnitTest.this.randomGenerator.nextDouble()).thenReturn(0.5);
+            RandomFailing policy = RandomFailing.skipAhead(0.001, RandomFailingUnitTest.this.randomGenerator);
+            long[] failed = new long[16];
+            failed[0] = 1;
+            policy.attemptOn(failed, 0, 1024);
+            int failures = Arrays.stream(failed).map(Long::bitCount).mapToInt(Math::toIntExact).sum();
+            assertAll(
+                    () -> assertEquals(2, failures),
+                    // device 0 had already failed, so the 693rd candidate is device 693
+                    () -> assertTrue((failed[693 >>> 6] & 1L << 693) != 0),
+                    () -> verify(RandomFailingUnitTest.this.randomGenerator, times(2)).nextDouble()
+            );
+        }
+
+        @Test
+        @Tag("UnitTest")
+        @DisplayName("A batch with a probability decides every device on its own")
+        public void testThresholdBatch() {
+            long[] failed = new long[2];
+            RandomFailing.withProbability(1, new SplittableRandom(6)).attemptOn(failed, 3, 100);
+            assertAll(
+                    () -> assertEquals(-1L << 3, failed[0]),
+                    () -> assertEquals((1L << 36) - 1, failed[1])
+            );
+        }
+
+        @Test
+        @Tag("UnitTest")
+        @DisplayName("Split policies keep the probability and the mode")
+        public void testSplit() {
+            RandomFailing split = RandomFailing.skipAhead(0.001, new SplittableRandom(7)).split();
+            assertAll(
+                    () -> assertEquals(0.001, split.probability()),
+                    () -> assertTrue(split.isSkipAhead())
+            );
+        }
+    }
 }
@@ -0,0 +1,181 @@
+package devices;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecordReplayFailingPolicyTest {
+    @TempDir
+    Path directory;
+    private Path file;
+
+    @BeforeEach
+    void init() {
+        this.file = this.directory.resolve("decisions.bits");
+    }
+
+    private boolean[] record(FailingPolicy policy, int attempts) throws IOException {
+        boolean[] decisions = new boolean[attempts];
+        try (RecordingFailingPolicy recording = new RecordingFailingPolicy(policy, this.file)) {
+            for (int i = 0; i < attempts; i++) {
+                decisions[i] = recording.attemptOn();
+                recording.reset();
+            }
+        }
+        return decisions;
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("Replaying gives back every recorded decision in order")
+    void testRoundTrip() throws IOException {
+        boolean[] recorded = this.record(RandomFailing.seeded(42), 1000);
+        try (ReplayingFailingPolicy replaying = new ReplayingFailingPolicy(this.file)) {
+            for (int i = 0; i < recorded.length; i++) {
+                assertEquals(recorded[i], replaying.attemptOn(), "decision " + i);
+            }
+            assertAll(
+                    () -> assertEquals(1000, replaying.decisions()),
+                    () -> assertEquals(0, replaying.remaining()),
+                    () -> assertEquals("random", replaying.policyName())
+            );
+        }
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("Decisions are stored as bits, 64 per long word")
+    void testCompact() throws IOException {
+        this.record(FailingPolicies.never(), 6400);
+        assertEquals(8 + 2 + "never".length() + 800, Files.size(this.file));
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("A replayed device switches on exactly like the recorded one")
+    void testReplayedDevice() throws IOException {
+        boolean[] recorded = this.record(RandomFailing.seeded(7), 100);
+        try (ReplayingFailingPolicy replaying = new ReplayingFailingPolicy(this.file)) {
+            StandardDevice device = new StandardDevice(replaying);
+            for (boolean success : recorded) {
+                assertEquals(success, device.tryOn());
+                device.off();
+            }
+            assertThrows(NoSuchElementException.class, replaying::attemptOn);
+        }
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("reset() does not rewind a replay, rewind() does")
+    void testRewind() throws IOException {
+        try (RecordingFailingPolicy recording = new RecordingFailingPolicy(FailingPolicies.failAfter(1), this.file)) {
+            recording.attemptOn();
+            recording.attemptOn();
+        }
+        try (ReplayingFailingPolicy replaying = new ReplayingFailingPolicy(this.file)) {
+            boolean first = replaying.attemptOn();
+            replaying.reset();
+            boolean second = replaying.attemptOn();
+            replaying.rewind();
+            assertAll(
+                    () -> assertTrue(first),
+                    () -> assertFalse(second),
+                    () -> assertTrue(replaying.attemptOn())
+            );
+        }
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("A truncated recording is rejected")
+    void testTruncated() throws IOException {
+        this.record(FailingPolicies.never(), 200);
+        byte[] bytes = Files.readAllBytes(this.file);
+        Files.write(this.file, Arrays.copyOf(bytes, bytes.length - 8));
+        assertThrows(IOException.class, () -> new ReplayingFailingPolicy(this.file));
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("Closing a recording twice leaves the file as the first close wrote it")
+    void testCloseTwice() throws IOException {
+        RecordingFailingPolicy recording = new RecordingFailingPolicy(FailingPolicies.never(), this.file);
+        for (int i = 0; i < 100; i++) {
+            recording.attemptOn();
+        }
+        recording.close();
+        byte[] closedOnce = Files.readAllBytes(this.file);
+        recording.close();
+        assertArrayEquals(closedOnce, Files.readAllBytes(this.file));
+    }
+
+    @Nested
+    class Fleet {
+        private Path fleetFile;
+
+        @BeforeEach
+        void init() {
+            this.fleetFile = RecordReplayFailingPolicyTest.this.directory.resolve("fleet.bits");
+        }
+
+        @Test
+        @Tag("UnitTest")
+        @DisplayName("Every device of a fleet replays its own decisions from one shared file")
+        void testFleetRoundTrip() throws IOException {
+            int devices = 50;
+            boolean[][] recorded = new boolean[devices][];
+            try (FleetRecorder recorder = new FleetRecorder(this.fleetFile)) {
+                FailingPolicy[] policies = new FailingPolicy[devices];
+                for (int d = 0; d < devices; d++) {
+                    policies[d] = recorder.record(d, RandomFailing.forDevice(42, d));
+                    recorded[d] = new boolean[d * 7];
+                }
+                // interleaved, so the records of different devices alternate in the file
+                for (int i = 0; i < devices * 7; i++) {
+                    for (int d = 0; d < devices; d++) {
+                        if (i < recorded[d].length) {
+                            recorded[d][i] = policies[d].attemptOn();
+                            policies[d].reset();
+                        }
+                    }
+                }
+            }
+            try (FleetReplayer replayer = new FleetReplayer(this.fleetFile)) {
+                assertEquals(devices, replayer.devices());
+                for (int d = 0; d < devices; d++) {
+                    FailingPolicy replay = replayer.replay(d);
+                    for (int i = 0; i < recorded[d].length; i++) {
+                        assertEquals(recorded[d][i], replay.attemptOn(), "device " + d + ", decision " + i);
+                    }
+                    assertThrows(NoSuchElementException.class, replay::attemptOn);
+                }
+            }
+        }
+
+        @Test
+        @Tag("UnitTest")
+        @DisplayName("A device is recorded once and a closed recorder takes no more decisions")
+        void testFleetMisuse() throws IOException {
+            FleetRecorder recorder = new FleetRecorder(this.fleetFile);
+            FailingPolicy policy = recorder.record(3, FailingPolicies.never());
+            assertThrows(IllegalArgumentException.class, () -> recorder.record(3, FailingPolicies.never()));
+            for (int i = 0; i < 63; i++) {
+                policy.attemptOn();
+            }
+            recorder.close();
+            assertAll(
+                    () -> assertThrows(IllegalStateException.class, policy::attemptOn),
+                    () -> assertThrows(IllegalStateException.class, () -> recorder.record(4, FailingPolicies.never())),
+                    () -> assertEquals(8 + 4 + 16, Files.size(this.fleetFile))
+            );
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package devices;
+
+import org.junit.jupiter.api.*;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReliabilitySimulatorTest {
+    private ReliabilitySimulator simulator;
+
+    @BeforeEach
+    void init() {
+        this.simulator = new ReliabilitySimulator();
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("Simulations need devices and cycles")
+    void testInvalidArguments() {
+        assertAll(
+                () -> assertThrows(IllegalArgumentException.class, () -> this.simulator.simulate(0, 10, 42)),
+                () -> assertThrows(IllegalArgumentException.class, () -> this.simulator.simulate(10, 0, 42)),
+                () -> assertThrows(NullPointerException.class, () -> new ReliabilitySimulator(null))
+        );
+    }
+
+    @Test
+    @DisplayName("The same seed gives the same result whatever the parallelism")
+    void testDeterministic() {
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool parallel = new ForkJoinPool(4);
+        try {
+            SimulationResult sequential = this.simulator.simulate(5_000, 50, 42, single);
+            assertAll(
+                    () -> assertEquals(sequential, this.simulator.simulate(5_000, 50, 42, parallel)),
+                    () -> assertEquals(sequential, this.simulator.simulate(5_000, 50, 42)),
+                    () -> assertNotEquals(sequential, this.simulator.simulate(5_000, 50, 43))
+            );
+        } finally {
+            single.shutdown();
+            parallel.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("RandomFailing devices are available half of the time and fail after one cycle on average")
+    void testRandomFailingEstimates() {
+        SimulationResult result = this.simulator.simulate(10_000, 100, 42);
+        assertAll(
+                () -> assertEquals(1_000_000, result.successes() + result.failures()),
+                () -> assertTrue(result.availabilityLow() <= 0.5 && 0.5 <= result.availabilityHigh(),
+                        () -> "availability " + result),
+                () -> assertTrue(result.availabilityLow() < result.availability()),
+                () -> assertEquals(1, result.meanTimeToFailure(), 0.02),
+                () -> assertTrue(result.meanTimeToFailureLow() < result.meanTimeToFailureHigh())
+        );
+    }
+
+    @Test
+    @DisplayName("At a low failure rate the time to failure interval covers the true mean")
+    void testLowFailureRateCoverage() {
+        // fails with probability 1/100: 99 successful cycles per failure on average, over runs of
+        // 100 cycles, so most streaks are still running when a device's run ends
+        ReliabilitySimulator rare = new ReliabilitySimulator(
+                (seed, id) -> RandomFailing.withProbability(0.01, new SplitMix64(SplitMix64.mix64(seed ^ id * 31))));
+        int covered = 0;
+        for (long seed = 0; seed < 40; seed++) {
+            SimulationResult result = rare.simulate(2_000, 100, seed);
+            if (result.meanTimeToFailureLow() <= 99 && 99 <= result.meanTimeToFailureHigh()) {
+                covered++;
+            }
+        }
+        int coverage = covered;
+        assertTrue(coverage >= 34, () -> coverage + " of 40 intervals cover the mean");
+    }
+
+    @Test
+    @Tag("UnitTest")
+    @DisplayName("Devices that never fail are always available and have no time to failure")
+    void testNeverFailing() {
+        SimulationResult result = new ReliabilitySimulator((seed, id) -> FailingPolicies.never()).simulate(100, 10, 42);
+        assertAll(
+                () -> assertEquals(1, result.availability()),
+                () -> assertEquals(0, result.failures()),
+                () -> assertTrue(Double.isNaN(result.meanTimeToFailure()))
+        );
+    }
+}
@@ -156,4 +156,79 @@ public class StandardDeviceUnitTest {
             );
         }
     }
+    
+    @Nested
+    class NonThrowingSwitchOn {
+        @Mock
+        FailingPolicy failingPolicyStub;
+        
+        @BeforeEach
+        void init() {
+            MockitoAnnotations.openMocks(this);
+            when(this.failingPolicyStub.policyName()).thenReturn("stub");
+        }
+        
+        @Test
+        @DisplayName("tryOn reports a policy refusal without throwing")
+        @Tag("UnitTest")
+        void testTryOnReportsFailure() {
+            when(this.failingPolicyStub.attemptOn()).thenReturn(true, false);
+            StandardDeviceUnitTest.this.device = new StandardDevice(this.failingPolicyStub);
+            boolean firstAttempt = StandardDeviceUnitTest.this.device.tryOn();
+            StandardDeviceUnitTest.this.device.off();
+            boolean secondAttempt = StandardDeviceUnitTest.this.device.tryOn();
+            assertAll(
+                    () -> assertTrue(firstAttempt),
+                    () -> assertFalse(secondAttempt),
+                    () -> assertFalse(StandardDeviceUnitTest.this.device.isOn()),
+                    () -> verify(this.failingPolicyStub, times(2)).attemptOn()
+            );
+        }
+        
+        @Test
+        @DisplayName("Stackless mode throws the same IllegalStateException without a stack trace")
+        @Tag("UnitTest")
+        void testStacklessFailures() {
+            when(this.failingPolicyStub.attemptOn()).thenReturn(false);
+            StandardDeviceUnitTest.this.device = new StandardDevice(this.failingPolicyStub, true);
+            IllegalStateException first = assertThrows(IllegalStateException.class, () -> StandardDeviceUnitTest.this.device.on());
+            IllegalStateException second = assertThrows(IllegalStateException.class, () -> StandardDeviceUnitTest.this.device.on());
+            assertAll(
+                    () -> assertSame(first, second),
+                    () -> assertEquals(0, first.getStackTrace().length),
+                    () -> assertFalse(StandardDeviceUnitTest.this.device.isOn())
+            );
+        }
+
+        @Test
+        @DisplayName("Stackless exceptions are not shared between devices and do not pile up suppressed exceptions")
+        @Tag("UnitTest")
+        void testStacklessFailuresIsolated() {
+            when(this.failingPolicyStub.attemptOn()).thenReturn(false);
+            StandardDevice other = new StandardDevice(this.failingPolicyStub, true);
+            StandardDeviceUnitTest.this.device = new StandardDevice(this.failingPolicyStub, true);
+            IllegalStateException first = assertThrows(IllegalStateException.class, () -> StandardDeviceUnitTest.this.device.on());
+            first.addSuppressed(new IllegalStateException("close failed"));
+            first.setStackTrace(new StackTraceElement[]{new StackTraceElement("Device", "on", null, 1)});
+            IllegalStateException second = assertThrows(IllegalStateException.class, () -> StandardDeviceUnitTest.this.device.on());
+            IllegalStateException fromOther = assertThrows(IllegalStateException.class, other::on);
+            assertAll(
+                    () -> assertNotSame(first, second),
+                    () -> assertEquals(0, first.getStackTrace().length),
+                    () -> assertEquals(0, second.getSuppressed().length),
+                    () -> assertNotSame(second, fromOther)
+            );
+        }
+        
+        @Test
+        @DisplayName("Default mode throws a fresh exception on every failure")
+        @Tag("UnitTest")
+        void testDefaultFailures() {
+            when(this.failingPolicyStub.attemptOn()).thenReturn(false);
+            StandardDeviceUnitTest.this.device = new StandardDevice(this.failingPolicyStub);
+            IllegalStateException first = assertThrows(IllegalStateException.class, () -> StandardDeviceUnitTest.this.device.on());
+            IllegalStateException second = assertThrows(IllegalStateException.class, () -> StandardDeviceUnitTest.this.device.on());
+            assertNotSame(first, second);
+        }
+    }
 }
\ No newline at end of file
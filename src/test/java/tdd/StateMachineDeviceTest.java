@@ -0,0 +1,61 @@
+package tdd;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StateMachineDeviceTest {
+
+    private Device device;
+
+    @BeforeEach
+    void init(){
+        this.device = new StateMachineDevice(DeviceStates.onOff());
+    }
+
+    @Test
+    void initiallyOff(){
+        assertFalse(this.device.isOn());
+    }
+
+    @Test
+    void canBeSwitchedOnAndOff(){
+        this.device.switchOn();
+        assertTrue(this.device.isOn());
+        this.device.switchOff();
+        assertFalse(this.device.isOn());
+    }
+
+    @Test
+    void cantSwitchOnIfAlreadyOn(){
+        this.device.switchOn();
+        assertThrows(IllegalStateException.class, () -> this.device.switchOn());
+        assertTrue(this.device.isOn());
+    }
+
+    @Test
+    void extendedDeviceIsOnOnlyOnceBooted(){
+        StateMachineDevice extended = new StateMachineDevice(DeviceStates.extended());
+        extended.switchOn();
+        boolean onWhileBooting = extended.isOn();
+        extended.fire(DeviceStates.BOOTED);
+        assertAll(
+                () -> assertFalse(onWhileBooting),
+                () -> assertTrue(extended.isOn()),
+                () -> assertEquals(DeviceStates.ON, extended.state())
+        );
+    }
+
+    @Test
+    void cantSwitchOffDuringMaintenance(){
+        StateMachineDevice extended = new StateMachineDevice(DeviceStates.extended());
+        extended.fire(DeviceStates.SERVICE);
+        assertAll(
+                () -> assertThrows(IllegalStateException.class, extended::switchOff),
+                () -> assertFalse(extended.tryFire(DeviceStates.SWITCH_ON)),
+                () -> assertTrue(extended.tryFire(DeviceStates.RESTORE)),
+                () -> assertEquals(DeviceStates.OFF, extended.state())
+        );
+    }
+}
@@ -0,0 +1,111 @@
+package tdd;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static tdd.DeviceStates.*;
+
+public class StateMachineTest {
+
+    private StateMachine machine;
+
+    @BeforeEach
+    void init(){
+        this.machine = DeviceStates.extended();
+    }
+
+    @Test
+    void onOffPresetBehavesLikeDeviceImpl(){
+        StateMachine onOff = DeviceStates.onOff();
+        assertAll(
+                () -> assertEquals(ON, onOff.fire(OFF, SWITCH_ON)),
+                () -> assertEquals(StateMachine.REJECTED, onOff.fire(ON, SWITCH_ON)),
+                () -> assertEquals(OFF, onOff.fire(ON, SWITCH_OFF)),
+                () -> assertEquals(OFF, onOff.fire(OFF, SWITCH_OFF)),
+                () -> assertTrue(onOff.isOn(ON)),
+                () -> assertFalse(onOff.isOn(OFF))
+        );
+    }
+
+    @Test
+    void extendedPresetBootsBeforeBeingOn(){
+        int booting = this.machine.fire(OFF, SWITCH_ON);
+        assertAll(
+                () -> assertEquals(BOOTING, booting),
+                () -> assertFalse(this.machine.isOn(booting)),
+                () -> assertEquals(ON, this.machine.fire(booting, BOOTED)),
+                () -> assertEquals(StateMachine.REJECTED, this.machine.fire(MAINTENANCE, SWITCH_ON)),
+                () -> assertThrows(IndexOutOfBoundsException.class, () -> this.machine.fire(OFF, 7))
+        );
+    }
+
+    @Test
+    void namesMatchTheConstants(){
+        assertAll(
+                () -> assertEquals(MAINTENANCE, this.machine.state("maintenance")),
+                () -> assertEquals(RESTORE, this.machine.event("restore")),
+                () -> assertEquals("standby", this.machine.stateName(STANDBY)),
+                () -> assertThrows(IllegalArgumentException.class, () -> this.machine.state("unknown"))
+        );
+    }
+
+    @Test
+    void applyMovesEveryStateAndCountsRejections(){
+        byte[] states = {OFF, ON, STANDBY, BOOTING, ERROR, MAINTENANCE};
+        int rejected = this.machine.apply(states, FAIL);
+        assertAll(
+                () -> assertEquals(3, rejected),
+                () -> assertArrayEquals(new byte[]{OFF, ERROR, ERROR, ERROR, ERROR, MAINTENANCE}, states)
+        );
+    }
+
+    @Test
+    void applyMatchesFireOnEveryState(){
+        for (int event = 0; event < this.machine.events(); event++) {
+            byte[] states = new byte[this.machine.states()];
+            for (int state = 0; state < states.length; state++) {
+                states[state] = (byte) state;
+            }
+            this.machine.apply(states, event);
+            for (int state = 0; state < states.length; state++) {
+                int next = this.machine.fire(state, event);
+                assertEquals(next == StateMachine.REJECTED ? state : next, states[state]);
+            }
+        }
+    }
+
+    @Test
+    void guardsVetoTransitionsByIndex(){
+        StateMachine guarded = DeviceStates.extendedBuilder()
+                .guard("off", "switchOn", (index, from, to) -> index % 2 == 0)
+                .build();
+        byte[] states = new byte[4];
+        int rejected = guarded.apply(states, SWITCH_ON);
+        assertAll(
+                () -> assertEquals(2, rejected),
+                () -> assertArrayEquals(new byte[]{BOOTING, OFF, BOOTING, OFF}, states),
+                () -> assertEquals(StateMachine.REJECTED, guarded.fire(OFF, SWITCH_ON, 1)),
+                () -> assertEquals(ON, guarded.fire(STANDBY, SWITCH_ON, 1))
+        );
+    }
+
+    @Test
+    void countOnCountsOnStates(){
+        assertEquals(2, this.machine.countOn(new byte[]{ON, OFF, ON, STANDBY}));
+    }
+
+    @Test
+    void invalidDefinitionsAreRejected(){
+        assertAll(
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> StateMachine.builder().state("a", false).state("a", true)),
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> StateMachine.builder().state("a", false).event("e").transition("a", "e", "b")),
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> StateMachine.builder().state("a", false).event("e")
+                                .guard("a", "e", (index, from, to) -> true).build()),
+                () -> assertThrows(IllegalStateException.class, () -> StateMachine.builder().state("a", false).build())
+        );
+    }
+}